@@ -0,0 +1,37 @@
+package ua.app.benchmark;
+
+import java.util.Random;
+
+/**
+ * Amount distributions used by benchmarks, amounts are in hundredths as AmountInWords expects.
+ */
+final class Amounts {
+    static final String REALISTIC = "realistic";
+    static final String WORST_CASE = "worst";
+
+    /** Triads with the longest words. */
+    private static final int[] LONGEST_TRIADS = { 777, 778, 787, 788, 877, 878, 887, 888 };
+
+    private Amounts() { }
+
+    /**
+     * Realistic amounts are log-uniform between 1.00 and 1'000'000.00, half of them are whole.
+     * Worst case amounts have every triad filled with the longest words.
+     */
+    static long[] generate(String distribution, int count, long seed) {
+        Random random = new Random(seed);
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (REALISTIC.equals(distribution)) {
+                long amount = (long) Math.pow(10, 2 + random.nextDouble() * 6);
+                amounts[i] = random.nextBoolean() ? amount / 100 * 100 : amount;
+            } else if (WORST_CASE.equals(distribution)) {
+                long amount = 0;
+                for (int triad = 0; triad < 5; triad++)
+                    amount = amount * 1000 + LONGEST_TRIADS[random.nextInt(LONGEST_TRIADS.length)];
+                amounts[i] = amount * 100 + 77 + random.nextInt(12);
+            } else throw new IllegalArgumentException("Unknown distribution " + distribution);
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,68 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.Utf8Arena;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch formatting throughput depending on number of cores given to the fork/join pool.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"100000"})
+    public int batchSize;
+
+    private ForkJoinPool pool;
+    private long[] amounts;
+    private int[] codes;
+    private final Utf8Arena arena = new Utf8Arena();
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        amounts = Amounts.generate(Amounts.REALISTIC, batchSize, 42);
+        codes = new int[batchSize];
+        int[] known = { 980, 978, 840, 643 };
+        for (int i = 0; i < batchSize; i++) codes[i] = known[i % known.length];
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public String[] formatAllSingleCurrency() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> AmountInWords.formatAll(amounts, AmountInWords.UAH)).get();
+    }
+
+    @Benchmark
+    public String[] formatAllMixedCurrencies() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> AmountInWords.formatAll(amounts, codes)).get();
+    }
+
+    @Benchmark
+    public Utf8Arena formatAllIntoArena() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> AmountInWords.formatAll(amounts, codes, arena)).get();
+    }
+
+    @Benchmark
+    public String[] loop() {
+        String[] result = new String[amounts.length];
+        for (int i = 0; i < amounts.length; i++) result[i] = AmountInWords.format(amounts[i], AmountInWords.UAH);
+        return result;
+    }
+}
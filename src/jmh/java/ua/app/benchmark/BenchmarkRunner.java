@@ -0,0 +1,40 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs benchmarks matching the pattern once per thread count with GC profiler enabled.
+ * Results of every run are written as JSON, so runs could be compared over time.
+ *
+ * Usage: BenchmarkRunner [include regexp] [comma separated thread counts] [result directory]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String[] threads = (args.length > 1 ? args[1] : "1").split(",");
+        File resultDirectory = new File(args.length > 2 ? args[2] : "target/jmh");
+        resultDirectory.mkdirs();
+
+        for (String count : threads) {
+            int threadCount = Integer.parseInt(count.trim());
+            File result = new File(resultDirectory, "jmh-result-" + threadCount + "-threads.json");
+
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threadCount)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(result.getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.ResultCache;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of repeated amounts with the result cache enabled and disabled.
+ * Amounts are drawn from a skewed set, the way fees and salaries repeat in real payments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+    private static final int AMOUNTS = 1 << 16;
+
+    @Param({"OFF", "LRU", "CLOCK"})
+    public String policy;
+
+    @Param({"4096"})
+    public int capacity;
+
+    private long[] amounts;
+
+    @Setup
+    public void setUp() {
+        long[] distinct = Amounts.generate(Amounts.REALISTIC, AMOUNTS / 8, 42);
+        Random random = new Random(7);
+        amounts = new long[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            // squared uniform index makes small indexes much more frequent
+            double u = random.nextDouble();
+            amounts[i] = distinct[(int) (u * u * distinct.length)];
+        }
+
+        AmountInWords.setResultCache("OFF".equals(policy)
+                ? null : new ResultCache(capacity, ResultCache.EvictionPolicy.valueOf(policy)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        AmountInWords.setResultCache(null);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String format(Cursor cursor) {
+        return AmountInWords.format(amounts[cursor.next++ & (AMOUNTS - 1)], AmountInWords.UAH);
+    }
+}
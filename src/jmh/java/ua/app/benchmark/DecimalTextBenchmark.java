@@ -0,0 +1,61 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amounts read from decimal text of messages: direct text path against <code>BigDecimal</code>
+ * and against <code>Long.parseLong</code> of the text without the decimal point.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecimalTextBenchmark {
+    private static final int AMOUNTS = 1 << 12;
+
+    private String[] texts;
+    private ByteBuffer[] bytes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long[] amounts = Amounts.generate(Amounts.WORST_CASE, AMOUNTS, 42);
+        texts = new String[AMOUNTS];
+        bytes = new ByteBuffer[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            texts[i] = BigDecimal.valueOf(amounts[i], 2).toPlainString();
+            bytes[i] = ByteBuffer.wrap(texts[i].getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Benchmark
+    public String bigDecimal() {
+        return AmountInWords.format(new BigDecimal(texts[next++ & (AMOUNTS - 1)]), AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public String parseLong() {
+        String text = texts[next++ & (AMOUNTS - 1)];
+        int point = text.indexOf('.');
+        long amount = Long.parseLong(text.substring(0, point) + text.substring(point + 1));
+        return AmountInWords.format(amount, AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public String text() {
+        return AmountInWords.format(texts[next++ & (AMOUNTS - 1)], AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public String utf8() {
+        return AmountInWords.format(bytes[next++ & (AMOUNTS - 1)], AmountInWords.UAH);
+    }
+}
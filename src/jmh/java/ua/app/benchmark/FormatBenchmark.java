@@ -0,0 +1,93 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.AmountInWords.Currency;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single amount formatting through every output path of AmountInWords, and through switch based
+ * triads which preceded precomputed word tables, as the baseline of {@link #format()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+    private static final int AMOUNTS = 1 << 12;
+
+    @Param({Amounts.REALISTIC, Amounts.WORST_CASE})
+    public String distribution;
+
+    @Param({"UAH", "EUR", "USD", "RUB"})
+    public String currencyName;
+
+    private Currency currency;
+    private long[] amounts;
+    // the same amounts in currency units and the ones shifted beyond the long range
+    private BigDecimal[] decimals, hugeDecimals;
+    private int next;
+
+    private final StringBuilder builder = new StringBuilder(512);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+
+    @Setup
+    public void setUp() {
+        currency = Currency.byName(currencyName);
+        amounts = Amounts.generate(distribution, AMOUNTS, 42);
+        decimals = new BigDecimal[AMOUNTS];
+        hugeDecimals = new BigDecimal[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            decimals[i] = BigDecimal.valueOf(amounts[i], 2);
+            hugeDecimals[i] = decimals[i].add(BigDecimal.TEN.pow(24));
+            if (!SwitchTriads.format(amounts[i], currencyName).equals(AmountInWords.format(amounts[i], currency)))
+                throw new IllegalStateException("Switch based triads differ for " + amounts[i] + " " + currencyName);
+        }
+    }
+
+    private long nextAmount() {
+        return amounts[next++ & (AMOUNTS - 1)];
+    }
+
+    @Benchmark
+    public String format() {
+        return AmountInWords.format(nextAmount(), currency);
+    }
+
+    @Benchmark
+    public String switchTriads() {
+        return SwitchTriads.format(nextAmount(), currencyName);
+    }
+
+    @Benchmark
+    public String formatByCode() {
+        return AmountInWords.format(nextAmount(), currency.getCode());
+    }
+
+    @Benchmark
+    public StringBuilder formatTo() {
+        builder.setLength(0);
+        return AmountInWords.formatTo(nextAmount(), currency, builder);
+    }
+
+    @Benchmark
+    public int formatUtf8() {
+        buffer.clear();
+        return AmountInWords.formatUtf8(nextAmount(), currency, buffer);
+    }
+
+    @Benchmark
+    public String formatBigDecimal() {
+        return AmountInWords.format(decimals[next++ & (AMOUNTS - 1)], currency);
+    }
+
+    @Benchmark
+    public String formatHugeBigDecimal() {
+        return AmountInWords.format(hugeDecimals[next++ & (AMOUNTS - 1)], currency);
+    }
+}
@@ -0,0 +1,43 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting in every language pack, the default language is measured without locale as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageBenchmark {
+    private static final int AMOUNTS = 1 << 12;
+
+    @Param({"ru", "uk", "en"})
+    public String language;
+
+    private Locale locale;
+    private long[] amounts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        locale = new Locale(language);
+        amounts = Amounts.generate(Amounts.REALISTIC, AMOUNTS, 42);
+    }
+
+    @Benchmark
+    public String formatDefault() {
+        return AmountInWords.format(amounts[next++ & (AMOUNTS - 1)], AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public String formatInLanguage() {
+        return AmountInWords.format(amounts[next++ & (AMOUNTS - 1)], AmountInWords.UAH, locale);
+    }
+}
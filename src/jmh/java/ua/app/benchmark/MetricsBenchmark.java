@@ -0,0 +1,52 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.FormatMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of metrics: formatter without metrics should format as fast as before they were introduced,
+ * the one with metrics pays for two clock reads and a few striped counter updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+    private static final int AMOUNTS = 1 << 12;
+
+    @Param({"OFF", "ON"})
+    public String metrics;
+
+    private long[] amounts;
+    private AmountFormatter formatter;
+
+    @Setup
+    public void setUp() {
+        amounts = Amounts.generate(Amounts.REALISTIC, AMOUNTS, 42);
+        formatter = "ON".equals(metrics)
+                ? AmountFormatter.standard().withMetrics(new FormatMetrics()) : AmountFormatter.standard();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        final StringBuilder out = new StringBuilder(256);
+    }
+
+    @Benchmark
+    public String format(Cursor cursor) {
+        return formatter.format(amounts[cursor.next++ & (AMOUNTS - 1)], AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public StringBuilder formatTo(Cursor cursor) {
+        cursor.out.setLength(0);
+        return formatter.formatTo(amounts[cursor.next++ & (AMOUNTS - 1)], AmountInWords.UAH, cursor.out);
+    }
+}
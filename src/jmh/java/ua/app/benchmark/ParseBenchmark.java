@@ -0,0 +1,50 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciliation of amounts in words against numeric amounts: parsing against formatting and comparing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+    private static final int AMOUNTS = 1 << 12;
+
+    @Param({Amounts.REALISTIC, Amounts.WORST_CASE})
+    public String distribution;
+
+    private long[] amounts;
+    private String[] words;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        amounts = Amounts.generate(distribution, AMOUNTS, 42);
+        words = new String[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) words[i] = AmountInWords.format(amounts[i], AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public long parse() {
+        return AmountInWords.parse(words[next++ & (AMOUNTS - 1)], AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        int i = next++ & (AMOUNTS - 1);
+        return AmountInWords.matches(words[i], amounts[i], AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public boolean formatAndCompare() {
+        int i = next++ & (AMOUNTS - 1);
+        return AmountInWords.format(amounts[i], AmountInWords.UAH).equals(words[i]);
+    }
+}
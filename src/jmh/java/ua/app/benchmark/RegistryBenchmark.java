@@ -0,0 +1,158 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.AmountInWords.Currency;
+import ua.app.businessObject.CurrencyCatalogue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Currency registry lookups and changes for different number of registered currencies.
+ * Linear scan of a copy-on-write list, the way lookups worked before the indexed snapshot, is measured
+ * as the baseline, as well as registration of the whole catalogue one currency after another.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryBenchmark {
+    private static final int LOOKUPS = 1 << 10;
+
+    @State(Scope.Benchmark)
+    public static class Registry {
+        @Param({"4", "50", "180"})
+        public int size;
+
+        /** Registered currencies as the list scanned by lookups before the indexed snapshot. */
+        List<Currency> registered;
+        int[] codes = new int[LOOKUPS];
+        String[] names = new String[LOOKUPS];
+
+        @Setup
+        public void setUp() {
+            for (int i = AmountInWords.getCurrencies().size(); i < size; i++)
+                AmountInWords.addCurrency(currency(100 + i, name(i)));
+
+            registered = new CopyOnWriteArrayList<Currency>(AmountInWords.getCurrencies());
+            for (int i = 0; i < LOOKUPS; i++) {
+                Currency c = registered.get(i * 31 % registered.size());
+                codes[i] = c.getCode();
+                names[i] = c.getName();
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            for (int i = 4; i < size; i++) AmountInWords.removeCurrency(Currency.byCode(100 + i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        int next;
+        // every thread changes its own currency, so registrations never clash
+        final Currency own = currency(700 + THREADS.getAndIncrement(), null);
+
+        int index() {
+            return next++ & (LOOKUPS - 1);
+        }
+    }
+
+    @Benchmark
+    public Currency byCode(Registry registry, Cursor cursor) {
+        return Currency.byCode(registry.codes[cursor.index()]);
+    }
+
+    @Benchmark
+    public Currency byName(Registry registry, Cursor cursor) {
+        return Currency.byName(registry.names[cursor.index()]);
+    }
+
+    @Benchmark
+    public Currency linearScanByCode(Registry registry, Cursor cursor) {
+        int code = registry.codes[cursor.index()];
+        // the code used to be checked twice
+        for (Currency c : registry.registered)
+            if (c.getCode() == code)
+                if (c.getCode() == code) return c;
+        return null;
+    }
+
+    @Benchmark
+    public Currency linearScanByName(Registry registry, Cursor cursor) {
+        String name = registry.names[cursor.index()];
+        for (Currency c : registry.registered)
+            if (c.getName().equals(name)) return c;
+        return null;
+    }
+
+    @Benchmark
+    public void addRemoveCurrency(Registry registry, Cursor cursor) {
+        AmountInWords.addCurrency(cursor.own);
+        AmountInWords.removeCurrency(cursor.own);
+    }
+
+    /** Catalogue of the size registered into the standard formatter one by one and as a batch. */
+    @State(Scope.Benchmark)
+    public static class Catalogue {
+        @Param({"180"})
+        public int size;
+
+        String text;
+        List<Currency> currencies;
+
+        @Setup
+        public void setUp() throws IOException {
+            StringBuilder catalogue = new StringBuilder();
+            for (int i = 0; i < size; i++)
+                catalogue.append(1000 + i).append('=').append(name(i)).append('Y')
+                        .append(";единица,единицы,единиц,FEMALE;сотая,сотых,сотых,FEMALE\n");
+            text = catalogue.toString();
+            currencies = CurrencyCatalogue.read(new StringReader(text));
+        }
+    }
+
+    @Benchmark
+    public AmountFormatter addOneByOne(Catalogue catalogue) {
+        AmountFormatter formatter = AmountFormatter.standard();
+        for (Currency c : catalogue.currencies) formatter = formatter.withCurrency(c);
+        return formatter;
+    }
+
+    @Benchmark
+    public AmountFormatter withCurrencies(Catalogue catalogue) {
+        return AmountFormatter.standard().withCurrencies(catalogue.currencies);
+    }
+
+    @Benchmark
+    public AmountFormatter readAndRegisterCatalogue(Catalogue catalogue) throws IOException {
+        return AmountFormatter.standard().withCurrencies(CurrencyCatalogue.read(new StringReader(catalogue.text)));
+    }
+
+    private static String name(int index) {
+        return "" + (char) ('A' + index / 26 % 26) + (char) ('A' + index % 26) + 'X';
+    }
+
+    private static Currency currency(int code, String name) {
+        return new Currency(code, name != null ? name : "T" + code) {{
+            oneInteger = "единица";
+            twoIntegers = "единицы";
+            fiveIntegers = "единиц";
+            integerSex = AmountInWords.Sex.FEMALE;
+            oneFraction = "сотая";
+            twoFractions = "сотых";
+            fiveFractions = "сотых";
+            fractionSex = AmountInWords.Sex.FEMALE;
+        }};
+    }
+}
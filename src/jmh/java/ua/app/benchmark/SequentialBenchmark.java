@@ -0,0 +1,56 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.SequentialFormatter;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential formatter against format amount by amount, for running balances of big accounts,
+ * sorted worst case amounts and the same amounts in random order, where nothing is reused.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SequentialBenchmark {
+    private static final int AMOUNTS = 1 << 16;
+
+    @Param({"balance", "sorted", "random"})
+    public String sequence;
+
+    private long[] amounts;
+    private SequentialFormatter sequential;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        if ("balance".equals(sequence)) {
+            amounts = new long[AMOUNTS];
+            long balance = 987654321098700L;
+            for (int i = 0; i < AMOUNTS; i++) amounts[i] = balance += 1234 + i % 10000;
+        } else {
+            amounts = Amounts.generate(Amounts.WORST_CASE, AMOUNTS, 42);
+            if ("sorted".equals(sequence)) Arrays.sort(amounts);
+        }
+        sequential = AmountInWords.sequential(AmountInWords.UAH);
+    }
+
+    private long nextAmount() {
+        return amounts[next++ & (AMOUNTS - 1)];
+    }
+
+    @Benchmark
+    public String format() {
+        return AmountInWords.format(nextAmount(), AmountInWords.UAH);
+    }
+
+    @Benchmark
+    public String sequential() {
+        return sequential.format(nextAmount());
+    }
+}
@@ -0,0 +1,160 @@
+package ua.app.benchmark;
+
+/**
+ * Switch based rendering of triads which AmountInWords had before precomputed word tables,
+ * kept as the baseline of {@link FormatBenchmark#switchTriads()}. Every triad goes through three switch
+ * blocks, its own StringBuilder and concatenated ending, triad divisors are computed by Math.pow.
+ * Only predefined currencies of the default language are known.
+ */
+final class SwitchTriads {
+    private static final boolean MALE = true, FEMALE = false;
+
+    private static final Triad THOUSAND = new Triad("тысяча", "тысячи", "тысяч", FEMALE, 3);
+    private static final Triad MILLION = new Triad("миллион", "миллиона", "миллионов", MALE, 6);
+    private static final Triad BILLION = new Triad("миллиард", "миллиарда", "миллиардов", MALE, 9);
+    private static final Triad TRILLION = new Triad("триллион", "триллиона", "триллионов", MALE, 12);
+
+    private SwitchTriads() { }
+
+    static String format(long amount, String currencyName) {
+        if (amount > 99999999999999999L || amount < -99999999999999999L)
+            throw new UnsupportedOperationException("Amounts grater than 999'999'999'999'999.00 are not supported.");
+        String[] c = words(currencyName);
+        boolean notEmpty = (amount / 100 / 1000) == 0;
+        Triad integerUnits = new Triad(c[0], c[1], c[2], c[3] == null, true, notEmpty, 0);
+        Triad fractionUnits = new Triad(c[4], c[5], c[6], c[7] == null, true, true, 0) {
+            @Override int getTriadFromAmount(long amount) {
+                return (int) (amount % 100);
+            }
+        };
+        Triad[] triads = { TRILLION, BILLION, MILLION, THOUSAND, integerUnits, fractionUnits };
+        StringBuilder amountInWords = new StringBuilder();
+        for (Triad triad : triads)
+            amountInWords.append(triadToWord(triad, triad.getTriadFromAmount(amount)));
+        return amountInWords.toString();
+    }
+
+    /** Forms of integer and fraction units, null after the forms marks male gender. */
+    private static String[] words(String currencyName) {
+        switch (currencyName) {
+            case "UAH": return new String[] { "гривна", "гривны", "гривен", "", "копейка", "копейки", "копеек", "" };
+            case "EUR": return new String[] { "евро", "евро", "евро", null, "евроцент", "евроцента", "евроцентов", null };
+            case "USD": return new String[] { "доллар", "доллара", "долларов", null, "цент", "цента", "центов", null };
+            case "RUB": return new String[] { "рубль", "рубля", "рублей", null, "копейка", "копейки", "копеек", "" };
+            default: throw new IllegalArgumentException("Currency " + currencyName + " is not found");
+        }
+    }
+
+    private static String triadToWord(Triad triad, int value) {
+        StringBuilder builder = new StringBuilder();
+        if (value == 0) {
+            if (!triad.mandatory) return "";
+            if (triad.zero) return "ноль" + " " + ending(triad, value);
+            else return ending(triad, value);
+        }
+
+        int hundreds = value / 100;
+        int tens = (value % 100) / 10;
+        int units = value % 10;
+        switch (hundreds) {
+            default: break;
+            case 1:  builder.append("сто"); break;
+            case 2:  builder.append("двести"); break;
+            case 3:  builder.append("триста"); break;
+            case 4:  builder.append("четыреста"); break;
+            case 5:  builder.append("пятьсот"); break;
+            case 6:  builder.append("шестьсот"); break;
+            case 7:  builder.append("семьсот"); break;
+            case 8:  builder.append("восемьсот"); break;
+            case 9:  builder.append("девятьсот"); break;
+        }
+        if (hundreds > 0) builder.append(' ');
+        switch (tens) {
+            default: break;
+            case 2:  builder.append("двадцать"); break;
+            case 3:  builder.append("тридцать"); break;
+            case 4:  builder.append("сорок"); break;
+            case 5:  builder.append("пятьдесят"); break;
+            case 6:  builder.append("шестьдесят"); break;
+            case 7:  builder.append("семьдесят"); break;
+            case 8:  builder.append("восемьдесят"); break;
+            case 9:  builder.append("девяносто"); break;
+        }
+        if (tens == 1) {
+            switch (units) {
+                case 0: builder.append("десять"); break;
+                case 1: builder.append("одиннадцать"); break;
+                case 2: builder.append("двенадцать"); break;
+                case 3: builder.append("тринадцать"); break;
+                case 4: builder.append("четырнадцать"); break;
+                case 5: builder.append("пятнадцать"); break;
+                case 6: builder.append("шестнадцать"); break;
+                case 7: builder.append("семнадцать"); break;
+                case 8: builder.append("восемнадцать"); break;
+                case 9: builder.append("девятнадцать"); break;
+            }
+        }
+        if (tens > 0) builder.append(' ');
+        if (tens != 1) {
+            switch (units) {
+                default: break;
+                case 1: builder.append(triad.male ? "один" : "одна"); break;
+                case 2: builder.append(triad.male ? "два" : "две"); break;
+                case 3: builder.append("три"); break;
+                case 4: builder.append("четыре"); break;
+                case 5: builder.append("пять"); break;
+                case 6: builder.append("шесть"); break;
+                case 7: builder.append("семь"); break;
+                case 8: builder.append("восемь"); break;
+                case 9: builder.append("девять"); break;
+            }
+            if (units > 0) builder.append(' ');
+        }
+        builder.append(ending(triad, value));
+        return builder.toString();
+    }
+
+    private static String ending(Triad triad, int value) {
+        int tens = (value % 100) / 10;
+        int units = value % 10;
+        if (tens == 1) return triad.five + " ";
+        String ending;
+        switch (units) {
+            default: ending = triad.five; break;
+            case 1:  ending = triad.one; break;
+            case 2:
+            case 3:
+            case 4:  ending = triad.two; break;
+        }
+        return ending + " ";
+    }
+
+    private static class Triad {
+        final String one, two, five;
+        final boolean male;
+        // triad must be present in word representation
+        final boolean mandatory;
+        // zero triad value should not be omitted but represented as 0 instead
+        final boolean zero;
+        final long power;
+
+        Triad(String one, String two, String five, boolean male, long power) {
+            this(one, two, five, male, false, false, power);
+        }
+
+        Triad(String one, String two, String five, boolean male, boolean mandatory, boolean zero, long power) {
+            this.one = one;
+            this.two = two;
+            this.five = five;
+            this.male = male;
+            this.mandatory = mandatory;
+            this.zero = zero;
+            this.power = power;
+        }
+
+        int getTriadFromAmount(long amount) {
+            long divisor = (long) Math.pow(10, power + 2);
+            return (int) (amount / divisor % 1000);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ua.app.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ua.app.utilities.SpreadsheetReader;
+import ua.app.utilities.WorkbookCache;
+import ua.app.utilities.XLSReader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test data parsing as done by data providers: workbook is read and one sheet is converted,
+ * the sheet is copied from the workbook cached for the suite, or its rows are streamed from the file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XLSReaderBenchmark {
+    private static final String TEST_DATA = "src/test/resources/testData.xls";
+
+    private XLSReader reader;
+
+    @Setup
+    public void setUp() {
+        reader = new XLSReader(TEST_DATA);
+    }
+
+    @Benchmark
+    public Object[][] openAndParseAmount() {
+        return new XLSReader(TEST_DATA).parseAmount("testFormatPlus");
+    }
+
+    @Benchmark
+    public Object[][] parseAmount() {
+        return reader.parseAmount("testFormatPlus");
+    }
+
+    @Benchmark
+    public Object[][] parseCurrency() {
+        return reader.parseCurrency("testRemoveCurrency");
+    }
+
+    @Benchmark
+    public Object[][] cachedAmount() {
+        return WorkbookCache.amounts(TEST_DATA, "testFormatPlus");
+    }
+
+    @Benchmark
+    public int streamAmount() {
+        int rows = 0;
+        for (SpreadsheetReader reader = SpreadsheetReader.amounts(TEST_DATA, "testFormatPlus"); reader.hasNext(); rows++)
+            reader.next();
+        return rows;
+    }
+}
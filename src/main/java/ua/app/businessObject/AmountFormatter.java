@@ -0,0 +1,535 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+import ua.app.businessObject.AmountInWords.CurrencyMapping;
+import ua.app.businessObject.AmountInWords.CurrencyResolver;
+import ua.app.businessObject.AmountInWords.DefaultCurrencyMapping;
+import ua.app.businessObject.AmountInWords.Registry;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable formatting context: registered currencies, default currency, currency mapping and result cache.
+ *
+ * Static methods of {@link AmountInWords} delegate to the shared formatter, which is replaced as a whole
+ * by static setters. Applications which need their own currencies or defaults, e.g. one per tenant,
+ * derive their own formatters and never touch the shared one:
+ * <code>AmountFormatter.standard().withDefaultCurrency(AmountInWords.USD).format(125012)</code>.
+ * Every <code>with</code> method returns new formatter and leaves this one unchanged, so formatters
+ * are safely shared between threads without any locking.
+ */
+public final class AmountFormatter {
+    /** Currency code of calls which pass currency object rather than code. */
+    private static final int NO_CODE = Integer.MIN_VALUE;
+
+    private final Registry registry;
+    private final Currency defaultCurrency;
+    private final CurrencyResolver resolver;
+    private final ResultCache cache;
+    private final FormatMetrics metrics;
+
+    private AmountFormatter(Registry registry, Currency defaultCurrency, CurrencyResolver resolver, ResultCache cache,
+                            FormatMetrics metrics) {
+        this.registry = registry;
+        this.defaultCurrency = defaultCurrency;
+        this.resolver = resolver;
+        this.cache = cache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Formatter with predefined currencies UAH, EUR, USD and RUB, default currency UAH,
+     * default currency mapping and without result cache.
+     */
+    public static AmountFormatter standard() {
+        return new AmountFormatter(new Registry(AmountInWords.UAH, AmountInWords.EUR, AmountInWords.USD, AmountInWords.RUB),
+                AmountInWords.UAH, new CurrencyResolver(new DefaultCurrencyMapping()), null, null);
+    }
+
+    /**
+     * Formatter with the currency registered as well.
+     * Currency is validated and copied, so later changes of its fields do not affect the formatter.
+     * @param currency currency to be registered
+     * @throws NullPointerException in case any field in Currency is null
+     * @throws IllegalArgumentException when currency has unsupported number of fraction digits
+     * @throws IllegalStateException when currency with the same code or name is registered
+     */
+    public AmountFormatter withCurrency(Currency currency) {
+        return withCurrencies(Collections.singletonList(currency));
+    }
+
+    /**
+     * Formatter with all the currencies registered, the same as {@link #withCurrency(Currency)} for each of them,
+     * but the registry is built once for the whole batch and counted in metrics as one change.
+     * @param currencies currencies to be registered
+     * @throws NullPointerException in case any field in Currency is null
+     * @throws IllegalArgumentException when currency has unsupported number of fraction digits
+     * @throws IllegalStateException when currency with the same code or name is registered or given twice
+     */
+    public AmountFormatter withCurrencies(Collection<? extends Currency> currencies) {
+        Currency[] copies = new Currency[currencies.size()];
+        int i = 0;
+        for (Currency currency : currencies) copies[i++] = AmountInWords.validatedCopy(currency);
+        if (copies.length == 0) return this;
+
+        Registry with = registry.with(copies);
+        if (metrics != null) metrics.registryChanged();
+        return new AmountFormatter(with, defaultCurrency, new CurrencyResolver(resolver.mapping), cache, metrics);
+    }
+
+    /** Formatter without the currency, this formatter when the currency is not registered. */
+    public AmountFormatter withoutCurrency(Currency currency) {
+        Registry without = registry.without(currency);
+        if (without == registry) return this;
+
+        if (metrics != null) metrics.registryChanged();
+        return new AmountFormatter(without, defaultCurrency, new CurrencyResolver(resolver.mapping), cache, metrics);
+    }
+
+    /**
+     * Formatter with another default currency.
+     * @throws IllegalArgumentException thrown when passing null as parameter
+     */
+    public AmountFormatter withDefaultCurrency(Currency currency) {
+        if (currency == null)
+            throw new IllegalArgumentException("Default currency should not be null");
+        return new AmountFormatter(registry, currency, resolver, cache, metrics);
+    }
+
+    /**
+     * Formatter with another currency mapping, null stands for the default mapping.
+     * Result cache is kept, its entries are keyed by registered currencies whatever mapping resolved them.
+     */
+    public AmountFormatter withCurrencyMapping(CurrencyMapping<?> mapping) {
+        return new AmountFormatter(registry, defaultCurrency,
+                new CurrencyResolver(mapping == null ? new DefaultCurrencyMapping() : mapping), cache, metrics);
+    }
+
+    /**
+     * Formatter which caches formatted amounts, null disables caching.
+     * The cache could be shared by several formatters, entries are keyed by their own registered currencies.
+     * Metrics go on reporting the cache they were given with, {@link #withMetrics(FormatMetrics)} of the
+     * derived formatter makes them report this one.
+     * @see AmountInWords#setResultCache(ResultCache)
+     */
+    public AmountFormatter withResultCache(ResultCache cache) {
+        return new AmountFormatter(registry, defaultCurrency, resolver, cache, metrics);
+    }
+
+    /**
+     * Formatter which counts its format, formatTo, formatUtf8 and formatAll calls, null disables counting.
+     * Stream paths are not measured: amounts of {@link #formatAll(LongStream, Object)}, of functions given by
+     * {@link #inWords(Object)} and of sequential formatters are not counted, so pipelines pay nothing per amount.
+     * Metrics could be shared by several formatters, registry changes are counted by formatters derived
+     * from this one. Cache statistics of metrics are taken from the result cache of this formatter.
+     * @see AmountInWords#setMetrics(FormatMetrics)
+     */
+    public AmountFormatter withMetrics(FormatMetrics metrics) {
+        if (metrics != null) metrics.attach(cache);
+        return new AmountFormatter(registry, defaultCurrency, resolver, cache, metrics);
+    }
+
+    public List<Currency> getCurrencies() { return new ArrayList<Currency>(Arrays.asList(registry.currencies)); }
+    public Currency getDefaultCurrency() { return defaultCurrency; }
+    /** Raw as the static API has always returned it, so callers pass their own currency type to it. */
+    @SuppressWarnings({"rawtypes"})
+    public CurrencyMapping getCurrencyMapping() { return resolver.mapping; }
+    public ResultCache getResultCache() { return cache; }
+    public FormatMetrics getMetrics() { return metrics; }
+
+    /** Registered currency with the digit code, null when there is none. */
+    public Currency byCode(int code) {
+        return registry.byCode(code);
+    }
+
+    /** Registered currency with the symbol code, null when there is none. */
+    public Currency byName(String name) {
+        return registry.byName(name);
+    }
+
+    public String toString() {
+        return "AmountFormatter[currencies=" + Arrays.toString(registry.currencies) + ", default=" + defaultCurrency
+                + ", mapping=" + resolver.mapping.getClass().getName() + ", cache=" + cache + "]";
+    }
+
+
+    /** @see AmountInWords#format(long) */
+    public String format(long amount) {
+        return format(amount, defaultCurrency);
+    }
+
+    /** @see AmountInWords#format(long, Object) */
+    public <T> String format(long amount, T currency) {
+        if (metrics != null) return measured(amount, currency, NO_CODE, Language.DEFAULT);
+        AmountInWords.checkAmount(amount);
+        return toWords(amount, resolve(currency), Language.DEFAULT, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+    }
+
+    /** @see AmountInWords#format(long, Object, Locale) */
+    public <T> String format(long amount, T currency, Locale locale) {
+        if (metrics != null) return measured(amount, currency, NO_CODE, locale);
+        AmountInWords.checkAmount(amount);
+        Language language = Language.of(locale);
+        return toWords(amount, resolve(currency), language, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+    }
+
+    /** @see AmountInWords#format(long, int) */
+    public String format(long amount, int currencyCode) {
+        if (metrics != null) return measured(amount, null, currencyCode, Language.DEFAULT);
+        AmountInWords.checkAmount(amount);
+        Currency c = registeredByCode(currencyCode);
+        return toWords(amount, c, Language.DEFAULT, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+    }
+
+    /** @see AmountInWords#format(BigDecimal) */
+    public String format(BigDecimal amount) {
+        return format(amount, defaultCurrency);
+    }
+
+    /** @see AmountInWords#format(BigDecimal, Object) */
+    public <T> String format(BigDecimal amount, T currency) {
+        if (metrics != null) return measured(amount, currency, Language.DEFAULT);
+        return format(amount, resolve(currency), Language.DEFAULT);
+    }
+
+    /** @see AmountInWords#format(BigDecimal, Object, Locale) */
+    public <T> String format(BigDecimal amount, T currency, Locale locale) {
+        if (metrics != null) return measured(amount, currency, locale);
+        Language language = Language.of(locale);
+        return format(amount, resolve(currency), language);
+    }
+
+    private String format(BigDecimal amount, Currency c, Language language) {
+        BigInteger minorUnits = AmountInWords.minorUnits(amount, c);
+        if (minorUnits.bitLength() < 64) {
+            long value = minorUnits.longValue();
+            if (value <= AmountInWords.MAX_AMOUNT && value >= -AmountInWords.MAX_AMOUNT)
+                return toWords(value, c, language, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+        }
+        return AmountInWords.renderChunks(minorUnits, c, language);
+    }
+
+    /** @see AmountInWords#format(CharSequence, Object) */
+    public <T> String format(CharSequence decimalText, T currency) {
+        return format(decimalText, currency, DecimalSyntax.PLAIN);
+    }
+
+    /** @see AmountInWords#format(CharSequence, Object, DecimalSyntax) */
+    public <T> String format(CharSequence decimalText, T currency, DecimalSyntax syntax) {
+        if (metrics != null) return measured(decimalText, null, currency, syntax);
+        Currency c = resolve(currency);
+        long amount = syntax.minorUnits(decimalText, c.fractionDigits);
+        return toWords(amount, c, Language.DEFAULT, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+    }
+
+    /** @see AmountInWords#format(ByteBuffer, Object) */
+    public <T> String format(ByteBuffer decimalText, T currency) {
+        return format(decimalText, currency, DecimalSyntax.PLAIN);
+    }
+
+    /** @see AmountInWords#format(ByteBuffer, Object, DecimalSyntax) */
+    public <T> String format(ByteBuffer decimalText, T currency, DecimalSyntax syntax) {
+        if (metrics != null) return measured(null, decimalText, currency, syntax);
+        Currency c = resolve(currency);
+        long amount = syntax.minorUnits(decimalText, c.fractionDigits);
+        return toWords(amount, c, Language.DEFAULT, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+    }
+
+    /** @see AmountInWords#formatTo(long, Object, StringBuilder) */
+    public <T> StringBuilder formatTo(long amount, T currency, StringBuilder out) {
+        if (metrics != null) {
+            long started = System.nanoTime();
+            Currency c = accepted(amount, currency, NO_CODE);
+            AmountInWords.appendAmount(out, Language.DEFAULT, amount, c);
+            metrics.formatted(c.code, System.nanoTime() - started);
+            return out;
+        }
+        AmountInWords.checkAmount(amount);
+        AmountInWords.appendAmount(out, Language.DEFAULT, amount, resolve(currency));
+        return out;
+    }
+
+    /** @see AmountInWords#formatTo(long, Object, Appendable) */
+    public <T> Appendable formatTo(long amount, T currency, Appendable out) throws IOException {
+        if (metrics != null) {
+            long started = System.nanoTime();
+            Currency c = accepted(amount, currency, NO_CODE);
+            AmountInWords.appendAmount(out, Language.DEFAULT, amount, c);
+            metrics.formatted(c.code, System.nanoTime() - started);
+            return out;
+        }
+        AmountInWords.checkAmount(amount);
+        AmountInWords.appendAmount(out, Language.DEFAULT, amount, resolve(currency));
+        return out;
+    }
+
+    /** @see AmountInWords#formatUtf8(long, Object, ByteBuffer) */
+    public <T> int formatUtf8(long amount, T currency, ByteBuffer dst) {
+        if (metrics != null) {
+            long started = System.nanoTime();
+            Currency c = accepted(amount, currency, NO_CODE);
+            int written = AmountInWords.putAmount(dst, amount, c);
+            metrics.formatted(c.code, System.nanoTime() - started);
+            return written;
+        }
+        AmountInWords.checkAmount(amount);
+        return AmountInWords.putAmount(dst, amount, resolve(currency));
+    }
+
+    /** @see AmountInWords#formatAll(long[], Object) */
+    public <T> String[] formatAll(long[] amounts, T currency) {
+        long started = metrics != null ? System.nanoTime() : 0;
+        Currency c;
+        try {
+            c = resolve(currency);
+            for (long amount : amounts) AmountInWords.checkAmount(amount);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            if (metrics != null) metrics.rejected(e);
+            throw e;
+        }
+        String[] words = BatchFormatter.format(this, amounts, c, null);
+        if (metrics != null) metrics.formattedAll(null, c.code, amounts.length, System.nanoTime() - started);
+        return words;
+    }
+
+    /** @see AmountInWords#formatAll(long[], int[]) */
+    public String[] formatAll(long[] amounts, int[] currencyCodes) {
+        long started = metrics != null ? System.nanoTime() : 0;
+        try {
+            if (amounts.length != currencyCodes.length)
+                throw new IllegalArgumentException("Got " + amounts.length + " amounts and " + currencyCodes.length
+                        + " currencies");
+
+            for (int i = 0; i < amounts.length; i++) {
+                AmountInWords.checkAmount(amounts[i]);
+                registeredByCode(currencyCodes[i]);
+            }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            if (metrics != null) metrics.rejected(e);
+            throw e;
+        }
+        String[] words = BatchFormatter.format(this, amounts, null, currencyCodes);
+        if (metrics != null) metrics.formattedAll(currencyCodes, 0, amounts.length, System.nanoTime() - started);
+        return words;
+    }
+
+    /** @see AmountInWords#formatAll(long[], Object, Utf8Arena) */
+    public <T> Utf8Arena formatAll(long[] amounts, T currency, Utf8Arena arena) {
+        long started = metrics != null ? System.nanoTime() : 0;
+        Currency c;
+        try {
+            c = resolve(currency);
+            for (long amount : amounts) AmountInWords.checkAmount(amount);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            if (metrics != null) metrics.rejected(e);
+            throw e;
+        }
+        BatchFormatter.format(this, amounts, c, null, arena);
+        if (metrics != null) metrics.formattedAll(null, c.code, amounts.length, System.nanoTime() - started);
+        return arena;
+    }
+
+    /** @see AmountInWords#formatAll(long[], int[], Utf8Arena) */
+    public Utf8Arena formatAll(long[] amounts, int[] currencyCodes, Utf8Arena arena) {
+        long started = metrics != null ? System.nanoTime() : 0;
+        try {
+            if (amounts.length != currencyCodes.length)
+                throw new IllegalArgumentException("Got " + amounts.length + " amounts and " + currencyCodes.length
+                        + " currencies");
+
+            for (int i = 0; i < amounts.length; i++) {
+                AmountInWords.checkAmount(amounts[i]);
+                registeredByCode(currencyCodes[i]);
+            }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            if (metrics != null) metrics.rejected(e);
+            throw e;
+        }
+        BatchFormatter.format(this, amounts, null, currencyCodes, arena);
+        if (metrics != null) metrics.formattedAll(currencyCodes, 0, amounts.length, System.nanoTime() - started);
+        return arena;
+    }
+
+    /** @see AmountInWords#formatAll(LongStream, Object) */
+    public <T> String[] formatAll(LongStream amounts, T currency) {
+        return amounts.mapToObj(inWords(currency)).toArray(String[]::new);
+    }
+
+    /** @see AmountInWords#inWords(Object) */
+    public <T> LongFunction<String> inWords(T currency) {
+        final Currency c = resolve(currency);
+        return new LongFunction<String>() {
+            public String apply(long amount) {
+                AmountInWords.checkAmount(amount);
+                return toWords(amount, c, Language.DEFAULT, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+            }
+        };
+    }
+
+    /** @see AmountInWords#sequential(Object) */
+    public <T> SequentialFormatter sequential(T currency) {
+        return new SequentialFormatter(resolve(currency), Language.DEFAULT);
+    }
+
+    /** @see AmountInWords#sequential(Object, Locale) */
+    public <T> SequentialFormatter sequential(T currency, Locale locale) {
+        Language language = Language.of(locale);
+        return new SequentialFormatter(resolve(currency), language);
+    }
+
+    /** @see AmountInWords#parse(CharSequence, Object) */
+    public <T> long parse(CharSequence words, T currency) {
+        return parse(words, resolve(currency), Language.DEFAULT);
+    }
+
+    /** @see AmountInWords#parse(CharSequence, Object, Locale) */
+    public <T> long parse(CharSequence words, T currency, Locale locale) {
+        Language language = Language.of(locale);
+        return parse(words, resolve(currency), language);
+    }
+
+    /** @see AmountInWords#matches(CharSequence, long, Object) */
+    public <T> boolean matches(CharSequence words, long amount, T currency) {
+        return Language.DEFAULT.parser().parse(words, resolve(currency)) == amount && amount >= 0;
+    }
+
+    private static long parse(CharSequence words, Currency c, Language language) {
+        long amount = language.parser().parse(words, c);
+        if (amount < 0)
+            throw new IllegalArgumentException("Amount in words is malformed at position " + (-1 - amount) + ": " + words);
+        return amount;
+    }
+
+
+    /** Format single amount counting it in metrics, currency is given either by object or by code. */
+    private String measured(long amount, Object currency, int code, Object locale) {
+        long started = System.nanoTime();
+        Currency c = accepted(amount, currency, code);
+        Language language = language(locale);
+        String words = toWords(amount, c, language, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+        metrics.formatted(c.code, System.nanoTime() - started);
+        return words;
+    }
+
+    private String measured(BigDecimal amount, Object currency, Object locale) {
+        long started = System.nanoTime();
+        Language language = language(locale);
+        Currency c;
+        String words;
+        try {
+            c = resolve(currency);
+            words = format(amount, c, language);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+        metrics.formatted(c.code, System.nanoTime() - started);
+        return words;
+    }
+
+    /** Format decimal text given either as characters or as bytes, counting it in metrics. */
+    private String measured(CharSequence chars, ByteBuffer bytes, Object currency, DecimalSyntax syntax) {
+        long started = System.nanoTime();
+        Currency c;
+        long amount;
+        try {
+            c = resolve(currency);
+            amount = chars != null ? syntax.minorUnits(chars, c.fractionDigits)
+                    : syntax.minorUnits(bytes, c.fractionDigits);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+        String words = toWords(amount, c, Language.DEFAULT, new StringBuilder(AmountInWords.INITIAL_CAPACITY));
+        metrics.formatted(c.code, System.nanoTime() - started);
+        return words;
+    }
+
+    /** Checked amount currency, rejected calls are counted in metrics. */
+    private Currency accepted(long amount, Object currency, int code) {
+        try {
+            AmountInWords.checkAmount(amount);
+            return code == NO_CODE ? resolve(currency) : registeredByCode(code);
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    /** Language given either as compiled language or as locale, unknown locales are counted in metrics. */
+    private Language language(Object locale) {
+        if (locale instanceof Language) return (Language) locale;
+        try {
+            return Language.of((Locale) locale);
+        } catch (IllegalArgumentException e) {
+            metrics.rejected(e);
+            throw e;
+        }
+    }
+
+    private Currency registeredByCode(int code) {
+        Currency c = registry.byCode(code);
+        if (c == null)
+            throw new IllegalArgumentException("Currency " + code + " is not found");
+        return c;
+    }
+
+    <T> Currency resolve(T currency) {
+        Currency c = resolver.resolve(currency);
+
+        if (c == null)
+            throw new IllegalArgumentException("Currency " + currency + " is not found");
+        return c;
+    }
+
+    /**
+     * Amount in words taken from the result cache when it is enabled, builder is used on cache miss only.
+     * Amount is expected to be checked already.
+     */
+    String toWords(long amount, Currency c, StringBuilder builder) {
+        return toWords(amount, c, Language.DEFAULT, builder);
+    }
+
+    /** The same as {@link #toWords(long, Currency, StringBuilder)}, only the default language is cached. */
+    private String toWords(long amount, Currency c, Language language, StringBuilder builder) {
+        ResultCache cache = this.cache;
+        if (cache == null || language != Language.DEFAULT || !ResultCache.accepts(c.code))
+            return AmountInWords.render(amount, c, language, builder);
+
+        // version is taken first, so words rendered while the cache is cleared are stamped as stale
+        int version = cache.version(c.code);
+        // entries are keyed by the registered currency, so formatters with other currencies never share them
+        Currency registered = registered(c);
+        if (registered == null) return AmountInWords.render(amount, c, language, builder);
+
+        String words = cache.get(amount, registered, version);
+        if (words == null) {
+            words = AmountInWords.render(amount, c, language, builder);
+            cache.put(amount, registered, version, words);
+        }
+        return words;
+    }
+
+    /** Registered currency which is the currency given or has the same morphology, null when there is none. */
+    private Currency registered(Currency c) {
+        Currency r = registry.byCode(c.code);
+        if (r == c) return r;
+        return r != null
+                && r.oneInteger.equals(c.oneInteger) && r.twoIntegers.equals(c.twoIntegers)
+                && r.fiveIntegers.equals(c.fiveIntegers) && r.integerSex == c.integerSex
+                && r.oneFraction.equals(c.oneFraction) && r.twoFractions.equals(c.twoFractions)
+                && r.fiveFractions.equals(c.fiveFractions) && r.fractionSex == c.fractionSex
+                && r.fractionDigits == c.fractionDigits ? r : null;
+    }
+}
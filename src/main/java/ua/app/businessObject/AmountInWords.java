@@ -1,9 +1,20 @@
 package ua.app.businessObject;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
 
 /**
  * The class <code>AmountInWords</code> is used to format digital form of currency amounts
@@ -16,11 +27,19 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * Predefined set of currencies is: UAH, EUR, USD, RUB. Default currency is UAH. In order to change default
  * currency the method {@link businessObject.AmountInWords#setDefaultCurrency(businessObject.AmountInWords.Currency)} could be used.
  * New currencies could be added by using {@link businessObject.AmountInWords#addCurrency(businessObject.AmountInWords.Currency)}
- * method.
+ * method, many of them at once by {@link #registerAll(Collection)}.
+ *
+ * Amounts are written in Russian by default. Ukrainian and English are chosen per call by locale,
+ * e.g. <code>AmountInWords.format(125012, AmountInWords.USD, Locale.ENGLISH);</code>, their language packs
+ * are loaded from classpath the first time they are used.
  *
  * In order to easily integrate AmountInWords class into the application which already has Currency class defined
  * there is an extension point provided by {@link businessObject.AmountInWords.CurrencyMapping} interface. Concrete CurrencyMapping
  * implementation could be set by {@link businessObject.AmountInWords#setCurrencyMapping(businessObject.AmountInWords.CurrencyMapping)} method.
+ *
+ * Currencies, default currency, mapping and result cache set by static methods belong to the shared
+ * {@link AmountFormatter}. Applications which need several such contexts, e.g. one per tenant,
+ * could use their own formatters derived from {@link AmountFormatter#standard()} instead.
  */
 public final class AmountInWords {
     /**
@@ -42,13 +61,12 @@ public final class AmountInWords {
         protected String oneFraction, twoFractions, fiveFractions;
         protected Sex fractionSex;
 
+        /** Number of fraction digits, long amounts are expressed in units of 10^-fractionDigits. */
+        protected int fractionDigits = DEFAULT_FRACTION_DIGITS;
+
 
         public static Currency byCode(int code) {
-            for (Currency c : currencies)
-                if (c.getCode() == code)
-                if (c.getCode() == code)
-                    return c;
-            return null;
+            return formatter.byCode(code);
         }
 
         public static Currency byCode(String code) {
@@ -56,10 +74,7 @@ public final class AmountInWords {
         }
 
         public static Currency byName(String name) {
-            for (Currency c : currencies)
-                if (c.getName().equals(name))
-                    return c;
-            return null;
+            return formatter.byName(name);
         }
 
         public Currency(int code, String name) {
@@ -67,8 +82,18 @@ public final class AmountInWords {
             this.name = name;
         }
 
+        /** Endings encoded in UTF-8, re-encoded when morphology fields are changed. */
+        private Utf8Endings utf8;
+
+        Utf8Endings utf8Endings() {
+            Utf8Endings endings = utf8;
+            if (endings == null || !endings.encodes(this)) utf8 = endings = new Utf8Endings(this);
+            return endings;
+        }
+
         public int getCode() { return code; }
         public String getName() { return name; }
+        public int getFractionDigits() { return fractionDigits; }
 
         public boolean equals(Object o) {
             return (o instanceof Currency) && code == ((Currency) o).code;
@@ -97,13 +122,98 @@ public final class AmountInWords {
      * Default implementation of currency mapping for working with currency implementation
      * provided by this class.
      */
-    private static final class DefaultCurrencyMapping implements CurrencyMapping<Currency> {
+    static final class DefaultCurrencyMapping implements CurrencyMapping<Currency> {
         public Currency getCurrency(Currency currency) {
             return currency;
         }
     }
 
 
+    /**
+     * Currency mapping together with results it has already returned.
+     * Results are kept in immutable open addressing table keyed by argument equality, the table is replaced
+     * on every new argument and dropped on registry change, so readers never lock.
+     * Default mapping returns its argument and is not cached at all.
+     */
+    static final class CurrencyResolver {
+        /** Mapping is called directly when it has been given more distinct arguments than this. */
+        private static final int MAX_ENTRIES = 512;
+
+        /** Mapping takes currencies of its own type only, callers are trusted to pass them. */
+        final CurrencyMapping<Object> mapping;
+        private final boolean direct;
+        private volatile Table table = new Table(0);
+
+        @SuppressWarnings({"unchecked"})
+        CurrencyResolver(CurrencyMapping<?> mapping) {
+            this.mapping = (CurrencyMapping<Object>) mapping;
+            this.direct = mapping instanceof DefaultCurrencyMapping;
+        }
+
+        Currency resolve(Object currency) {
+            if (direct) return (Currency) currency;
+            if (currency == null) return mapping.getCurrency(null);
+
+            Table observed = table;
+            Currency c = observed.get(currency);
+            if (c != null) return c;
+
+            c = mapping.getCurrency(currency);
+            if (c != null) add(observed, currency, c);
+            return c;
+        }
+
+        /** Publish table with new entry unless table has been replaced since it was read. */
+        private synchronized void add(Table observed, Object currency, Currency c) {
+            if (table != observed || observed.size >= MAX_ENTRIES) return;
+
+            Table copy = new Table(observed.size + 1);
+            for (int i = 0; i < observed.keys.length; i++)
+                if (observed.keys[i] != null) copy.put(observed.keys[i], observed.values[i]);
+            copy.put(currency, c);
+            table = copy;
+        }
+
+        synchronized void clear() {
+            table = new Table(0);
+        }
+
+        private static final class Table {
+            final Object[] keys;
+            final Currency[] values;
+            final int size;
+
+            Table(int size) {
+                // load factor is kept below one half
+                int capacity = size == 0 ? 0 : Integer.highestOneBit(size * 4 - 1);
+                this.keys = new Object[capacity];
+                this.values = new Currency[capacity];
+                this.size = size;
+            }
+
+            Currency get(Object key) {
+                if (size == 0) return null;
+                int mask = keys.length - 1;
+                for (int i = index(key, mask); keys[i] != null; i = (i + 1) & mask)
+                    if (keys[i].equals(key)) return values[i];
+                return null;
+            }
+
+            void put(Object key, Currency value) {
+                int mask = keys.length - 1;
+                int i = index(key, mask);
+                while (keys[i] != null) i = (i + 1) & mask;
+                keys[i] = key;
+                values[i] = value;
+            }
+
+            private static int index(Object key, int mask) {
+                return key.hashCode() * 0x9E3779B9 >>> 16 & mask;
+            }
+        }
+    }
+
+
     public static final Currency UAH = new Currency(980, "UAH") {{
         oneInteger = ONE_UAH_INEGER;
         twoIntegers = TWO_UAH_INTEGER;
@@ -153,18 +263,65 @@ public final class AmountInWords {
     }};
 
 
-    /** Collection which holds all registered currencies. */
-    private static final List<Currency> currencies = new CopyOnWriteArrayList<Currency>() {{
-        add(UAH); add(EUR); add(USD); add(RUB);
-    }};
+    /**
+     * Formatter all static methods delegate to, replaced as a whole by static setters.
+     * Declared after predefined currencies, since the standard formatter registers them.
+     */
+    private static volatile AmountFormatter formatter = AmountFormatter.standard();
+
+    /** Serializes static setters, so concurrent changes of the shared formatter are not lost. */
+    private static final Object FORMATTER_LOCK = new Object();
+
+    /** Shared formatter used by static methods. */
+    public static AmountFormatter getFormatter() { return formatter; }
+    /**
+     * Replace shared formatter, e.g. to restore predefined currencies and defaults at once.
+     * @param shared formatter to be used by static methods
+     * @throws IllegalArgumentException thrown when passing null as parameter
+     */
+    public static void setFormatter(AmountFormatter shared) {
+        if (shared == null)
+            throw new IllegalArgumentException("Formatter should not be null");
+        synchronized (FORMATTER_LOCK) {
+            formatter = shared;
+        }
+    }
 
     /**
      * Register new currency within AmountInWords class.
      * Method performes primitive validation in order to prevent common errors in future. 
      * @param currency currency to be registered
      * @throws NullPointerException in case any field in Currency is null
+     * @see AmountFormatter#withCurrency(Currency)
      */
     public static void addCurrency(Currency currency) {
+        synchronized (FORMATTER_LOCK) {
+            formatter = formatter.withCurrency(currency);
+        }
+    }
+    /**
+     * Register all currencies at once, e.g. read by {@link CurrencyCatalogue}.
+     * The batch is validated as a whole and published by a single change of the shared formatter,
+     * so either all currencies are registered or none of them.
+     * @param currencies currencies to be registered
+     * @throws NullPointerException in case any field in Currency is null
+     * @throws IllegalStateException when currency with the same code or name is registered or given twice
+     * @see AmountFormatter#withCurrencies(Collection)
+     */
+    public static void registerAll(Collection<? extends Currency> currencies) {
+        synchronized (FORMATTER_LOCK) {
+            formatter = formatter.withCurrencies(currencies);
+        }
+    }
+    public static void removeCurrency(Currency currency) {
+        synchronized (FORMATTER_LOCK) {
+            formatter = formatter.withoutCurrency(currency);
+        }
+    }
+    public static List<Currency> getCurrencies() { return formatter.getCurrencies(); }
+
+    /** Copy of the currency which is safe to register, so later changes of the currency fields do not affect it. */
+    static Currency validatedCopy(Currency currency) {
         if (currency == null) throw new NullPointerException("Currency is null");
 
         if (currency.oneInteger == null
@@ -176,10 +333,9 @@ public final class AmountInWords {
                 || currency.fiveFractions == null
                 || currency.fractionSex == null)
             throw new NullPointerException("Currency " + currency + " is not properly initialized");
-
-        for (Currency c : currencies)
-            if (c.getCode() == currency.getCode() || c.getName().equals(currency.getName()))
-                throw new IllegalStateException("Currency " + currency + "already registered");
+        if (currency.fractionDigits < 0 || currency.fractionDigits > MAX_FRACTION_DIGITS)
+            throw new IllegalArgumentException("Currency " + currency + " has " + currency.fractionDigits
+                    + " fraction digits, 0.." + MAX_FRACTION_DIGITS + " are supported");
 
         // make copy just to be sure that somebody will not break our contract
         Currency copy = new Currency(currency.getCode(), currency.getName());
@@ -191,43 +347,162 @@ public final class AmountInWords {
         copy.twoFractions = currency.twoFractions;
         copy.fiveFractions = currency.fiveFractions;
         copy.fractionSex = currency.fractionSex;
+        copy.fractionDigits = currency.fractionDigits;
+        return copy;
+    }
+
+
+    /**
+     * Immutable snapshot of registered currencies.
+     * Numeric codes 0..999 and three letter upper case names are resolved by direct array indexing,
+     * any other code or name falls back to a hash map.
+     */
+    static final class Registry {
+        private static final int CODES = 1000;
+        private static final int NAMES = 26 * 26 * 26;
+
+        /** Registered currencies in registration order. */
+        final Currency[] currencies;
+
+        final Currency[] byCode = new Currency[CODES];
+        final Currency[] byName = new Currency[NAMES];
+        final Map<Integer, Currency> otherCodes = new HashMap<Integer, Currency>();
+        final Map<String, Currency> otherNames = new HashMap<String, Currency>();
+
+        Registry(Currency... currencies) {
+            this.currencies = currencies;
+            for (Currency c : currencies) {
+                if (c.code >= 0 && c.code < CODES) byCode[c.code] = c;
+                else otherCodes.put(c.code, c);
+
+                int index = nameIndex(c.name);
+                if (index >= 0) byName[index] = c;
+                else if (c.name != null) otherNames.put(c.name, c);
+            }
+        }
+
+        Currency byCode(int code) {
+            if (code >= 0 && code < CODES) return byCode[code];
+            return otherCodes.isEmpty() ? null : otherCodes.get(code);
+        }
+
+        Currency byName(String name) {
+            int index = nameIndex(name);
+            if (index >= 0) return byName[index];
+            return name == null || otherNames.isEmpty() ? null : otherNames.get(name);
+        }
+
+        /**
+         * Snapshot with all the currencies added, built at once however many of them there are.
+         * @throws IllegalStateException when currency with the same code or name is registered or added twice
+         */
+        Registry with(Currency... added) {
+            for (Currency c : added)
+                if (byCode(c.code) != null || byName(c.name) != null)
+                    throw new IllegalStateException("Currency " + c + " already registered");
+
+            Currency[] copy = Arrays.copyOf(currencies, currencies.length + added.length);
+            System.arraycopy(added, 0, copy, currencies.length, added.length);
+            Registry registry = new Registry(copy);
+
+            // of added twice the latter is indexed
+            for (Currency c : added)
+                if (registry.byCode(c.code) != c || c.name != null && registry.byName(c.name) != c)
+                    throw new IllegalStateException("Currency " + c + " is added twice");
+            return registry;
+        }
+
+        /** Snapshot without the first currency equal to the one given, the same as List.remove does. */
+        Registry without(Currency currency) {
+            if (currency == null) return this;
+            for (int i = 0; i < currencies.length; i++) {
+                if (currency.equals(currencies[i])) {
+                    Currency[] copy = new Currency[currencies.length - 1];
+                    System.arraycopy(currencies, 0, copy, 0, i);
+                    System.arraycopy(currencies, i + 1, copy, i, copy.length - i);
+                    return new Registry(copy);
+                }
+            }
+            return this;
+        }
 
-        currencies.add(copy);
+        /** Three latin upper case letters packed into 0..17575, -1 for any other name. */
+        static int nameIndex(String name) {
+            if (name == null || name.length() != 3) return -1;
+            int index = 0;
+            for (int i = 0; i < 3; i++) {
+                int letter = name.charAt(i) - 'A';
+                if (letter < 0 || letter >= 26) return -1;
+                index = index * 26 + letter;
+            }
+            return index;
+        }
     }
-    public static void removeCurrency(Currency currency) { currencies.remove(currency); }
-    public static List<Currency> getCurrencies() { return new ArrayList<Currency>(currencies); }
 
 
     /**
      * Default currency to be used when method AmountInWords.format(long) is called.
      * @see businessObject.AmountInWords#format(long)
      */
-    private static volatile Currency defaultCurrency = UAH;
-
-    public static Currency getDefaultCurrency() { return defaultCurrency; }
+    public static Currency getDefaultCurrency() { return formatter.getDefaultCurrency(); }
     /**
      * Set default currency.
      * @param currency currency to be used by default
      * @throws IllegalArgumentException thrown when passing null as parameter
      */
     public static void setDefaultCurrency(Currency currency) {
-        if (currency == null)
-            throw new IllegalArgumentException("Default currency should not be null");
-        defaultCurrency = currency;
+        synchronized (FORMATTER_LOCK) {
+            formatter = formatter.withDefaultCurrency(currency);
+        }
     }
 
 
-    private static volatile CurrencyMapping<?> currencyMapping = new DefaultCurrencyMapping();
-
-    public static CurrencyMapping getCurrencyMapping() { return currencyMapping; }
+    @SuppressWarnings({"rawtypes"})
+    public static CurrencyMapping getCurrencyMapping() { return formatter.getCurrencyMapping(); }
     /**
      * Set custom currency mapping implementation.
      * When parameter is null then currencyMapping is set to DefaultCurrencyMapping instance.
+     * Custom mapping is expected to return the same currency for equal arguments while registry is not changed,
+     * its results are cached until the next registry change.
      * @param mapping currency mapping to be used
      */
-    public static void setCurrencyMapping(CurrencyMapping mapping) {
-        if (mapping == null) currencyMapping = new DefaultCurrencyMapping();
-        else currencyMapping = mapping;
+    public static void setCurrencyMapping(CurrencyMapping<?> mapping) {
+        synchronized (FORMATTER_LOCK) {
+            formatter = formatter.withCurrencyMapping(mapping);
+        }
+    }
+
+
+    /** Cache of formatted amounts, null when caching is disabled. */
+    public static ResultCache getResultCache() { return formatter.getResultCache(); }
+    /**
+     * Enable caching of formatted amounts.
+     * Only amounts in registered currencies are cached. Entries are keyed by the registered currency,
+     * so a currency added or removed later never gets words of the previous one. Metrics of static calls,
+     * if any, report this cache from now on.
+     * @param cache cache to be used, null disables caching
+     */
+    public static void setResultCache(ResultCache cache) {
+        synchronized (FORMATTER_LOCK) {
+            AmountFormatter cached = formatter.withResultCache(cache);
+            formatter = cached.getMetrics() != null ? cached.withMetrics(cached.getMetrics()) : cached;
+        }
+    }
+
+
+    /** Metrics of static calls, null when they are not counted. */
+    public static FormatMetrics getMetrics() { return formatter.getMetrics(); }
+    /**
+     * Count static format calls, rejected calls and registry changes, e.g.
+     * <code>AmountInWords.setMetrics(new FormatMetrics()); metrics.registerMBean("shared");</code>.
+     * Without metrics formatting only checks that they are null. Stream formatAll and inWords functions
+     * are not counted, see {@link AmountFormatter#withMetrics(FormatMetrics)}.
+     * @param metrics metrics to be updated, null disables counting
+     */
+    public static void setMetrics(FormatMetrics metrics) {
+        synchronized (FORMATTER_LOCK) {
+            formatter = formatter.withMetrics(metrics);
+        }
     }
 
     
@@ -238,7 +513,7 @@ public final class AmountInWords {
      * @see businessObject.AmountInWords#format(long, Object)
      */
     public static String format(long amount) {
-        return format(amount, defaultCurrency);
+        return formatter.format(amount);
     }
 
     /**
@@ -248,178 +523,572 @@ public final class AmountInWords {
      * @return amount formatted in words as string
      */
     public static <T> String format(long amount, T currency) {
-        if (amount > 99999999999999999L || amount < -99999999999999999L)
-            throw new UnsupportedOperationException("Amounts grater than 999'999'999'999'999.00 are not supported.");
+        return formatter.format(amount, currency);
+    }
 
-        @SuppressWarnings({"unchecked"})
-        Currency c = getCurrencyMapping().getCurrency(currency);
+    /**
+     * Format amount in words in the language of the locale using the currency specified.
+     * Language pack is loaded the first time its language is used, currency morphology is taken
+     * from the pack when the pack translates the currency.
+     * @param amount amount to be formatted
+     * @param currency currency to be used
+     * @param locale locale of the language, only its language is taken into account
+     * @return amount formatted in words as string
+     * @throws IllegalArgumentException when there is no language pack for the locale
+     * @see businessObject.AmountInWords#format(long, Object)
+     */
+    public static <T> String format(long amount, T currency, Locale locale) {
+        return formatter.format(amount, currency, locale);
+    }
+
+    /**
+     * Format amount in words using registered currency with the digit code specified.
+     * Currency mapping is not involved, code is resolved directly by the registry.
+     * @param amount amount to be formatted
+     * @param currencyCode digit code of registered currency
+     * @return amount formatted in words as string
+     * @throws IllegalArgumentException when currency with such code is not registered
+     */
+    public static String format(long amount, int currencyCode) {
+        return formatter.format(amount, currencyCode);
+    }
 
-        if (c == null)
-            throw new IllegalArgumentException("Currency " + currency + " is not found");
+    /**
+     * Format amount of any size in words using default currency.
+     * @param amount amount to be formatted, in currency units
+     * @return amount in words
+     * @see businessObject.AmountInWords#format(BigDecimal, Object)
+     */
+    public static String format(BigDecimal amount) {
+        return formatter.format(amount);
+    }
 
-        boolean notEmpty = (amount / 100 / 1000 ) == 0;
+    /**
+     * Format amount of any size in words using the currency specified.
+     * Unlike long overloads amount is given in currency units, e.g. <code>new BigDecimal("1250.12")</code>,
+     * and may have up to {@link Currency#getFractionDigits()} fraction digits. Integer part up to 36 digits
+     * is supported. Amounts which fit long overloads are formatted by them, bigger ones are split into
+     * base 10^9 chunks once, so there is no big number division per triad.
+     * @param amount amount to be formatted, in currency units
+     * @param currency currency to be used
+     * @return amount formatted in words as string
+     * @throws IllegalArgumentException when amount has more fraction digits than the currency
+     * @throws UnsupportedOperationException when integer part has more than 36 digits
+     */
+    public static <T> String format(BigDecimal amount, T currency) {
+        return formatter.format(amount, currency);
+    }
 
-        Triad integerUnits = new Triad(c.oneInteger, c.twoIntegers, c.fiveIntegers, c.integerSex, notEmpty);
-        Triad fractionUnits = new Triad(c.oneFraction, c.twoFractions, c.fiveFractions, c.fractionSex, true) {
-            @Override int getTriadFromAmount(long amount) {
-                return (int) (amount % 100);
-            }
-        };
+    /**
+     * Format amount of any size in words in the language of the locale using the currency specified.
+     * @param amount amount to be formatted, in currency units
+     * @param currency currency to be used
+     * @param locale locale of the language, only its language is taken into account
+     * @return amount formatted in words as string
+     * @throws IllegalArgumentException when amount has more fraction digits than the currency
+     *                                  or there is no language pack for the locale
+     * @throws UnsupportedOperationException when integer part has more than 36 digits
+     * @see businessObject.AmountInWords#format(BigDecimal, Object)
+     */
+    public static <T> String format(BigDecimal amount, T currency, Locale locale) {
+        return formatter.format(amount, currency, locale);
+    }
 
-        List<Triad> triads = Arrays.asList(Triad.TRILLION, Triad.BILLION, Triad.MILLION, Triad.THOUSAND,
-                integerUnits, fractionUnits);
+    /**
+     * Format amount written as decimal text in currency units, e.g. <code>1234567.89</code> of XML messages,
+     * using the currency specified. Text is read in one pass straight into minor units, there is no
+     * <code>BigDecimal</code> nor <code>Long.parseLong</code> on the way, then formatted as long amounts are.
+     * @param decimalText amount in currency units with decimal point and no grouping, see {@link DecimalSyntax#PLAIN}
+     * @param currency currency to be used
+     * @return amount formatted in words as string
+     * @throws IllegalArgumentException when text is malformed or has more fraction digits than the currency
+     * @throws UnsupportedOperationException when amount is out of the range of long overloads
+     */
+    public static <T> String format(CharSequence decimalText, T currency) {
+        return formatter.format(decimalText, currency);
+    }
 
-        StringBuilder amountInWords = new StringBuilder();
-        for (Triad triad : triads)
-            amountInWords.append(triadToWord(triad, triad.getTriadFromAmount(amount)));
+    /**
+     * Format amount written as decimal text with the separators of the syntax, e.g. <code>1 234 567,89</code>
+     * with {@link DecimalSyntax#SPACED}, using the currency specified.
+     * @see businessObject.AmountInWords#format(CharSequence, Object)
+     */
+    public static <T> String format(CharSequence decimalText, T currency, DecimalSyntax syntax) {
+        return formatter.format(decimalText, currency, syntax);
+    }
 
-        return amountInWords.toString();
+    /**
+     * Format amount written as UTF-8 decimal text from position to limit of the buffer, e.g. a field
+     * of a message read from network, using the currency specified. Position of the buffer is not changed.
+     * @see businessObject.AmountInWords#format(CharSequence, Object)
+     */
+    public static <T> String format(ByteBuffer decimalText, T currency) {
+        return formatter.format(decimalText, currency);
     }
 
-    
-    private static String triadToWord(Triad triad, int value) {
-        StringBuilder builder = new StringBuilder();
+    /**
+     * Format amount written as UTF-8 decimal text with the separators of the syntax, using the currency specified.
+     * @see businessObject.AmountInWords#format(ByteBuffer, Object)
+     */
+    public static <T> String format(ByteBuffer decimalText, T currency, DecimalSyntax syntax) {
+        return formatter.format(decimalText, currency, syntax);
+    }
 
-        if (value == 0) {
-            if (!triad.mandatory) return "";
-            
-            if (triad.zero) return WORD_0 + " " + ending(triad, value);
-            else return ending(triad, value);
-        }
-
-        int hundreds = value / 100;
-        int tens = (value % 100) / 10;
-        int units = value % 10;
-
-        switch (hundreds) {
-            default: break;
-            case 1:  builder.append(WORD_100); break;
-            case 2:  builder.append(WORD_200); break;
-            case 3:  builder.append(WORD_300); break;
-            case 4:  builder.append(WORD_400); break;
-            case 5:  builder.append(WORD_500); break;
-            case 6:  builder.append(WORD_600); break;
-            case 7:  builder.append(WORD_700); break;
-            case 8:  builder.append(WORD_800); break;
-            case 9:  builder.append(WORD_900); break;
-        }
-        if (hundreds > 0) builder.append(' ');
-
-        switch (tens) {
-            default: break;
-            case 2:  builder.append(WORD_20); break;
-            case 3:  builder.append(WORD_30); break;
-            case 4:  builder.append(WORD_40); break;
-            case 5:  builder.append(WORD_50); break;
-            case 6:  builder.append(WORD_60); break;
-            case 7:  builder.append(WORD_70); break;
-            case 8:  builder.append(WORD_80); break;
-            case 9:  builder.append(WORD_90); break;
-        }
-
-        if (tens == 1) {
-            switch (units) {
-                case 0: builder.append(WORD_10); break;
-                case 1: builder.append(WORD_11); break;
-                case 2: builder.append(WORD_12); break;
-                case 3: builder.append(WORD_13); break;
-                case 4: builder.append(WORD_14); break;
-                case 5: builder.append(WORD_15); break;
-                case 6: builder.append(WORD_16); break;
-                case 7: builder.append(WORD_17); break;
-                case 8: builder.append(WORD_18); break;
-                case 9: builder.append(WORD_19); break;
-            }
+    /**
+     * Amount in units of 10^-fractionDigits of the currency.
+     * @throws IllegalArgumentException when amount has more fraction digits than the currency
+     */
+    static BigInteger minorUnits(BigDecimal amount, Currency c) {
+        try {
+            return amount.setScale(c.fractionDigits, RoundingMode.UNNECESSARY).unscaledValue();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " has more than " + c.fractionDigits
+                    + " fraction digits of " + c);
         }
-        if (tens > 0) builder.append(' ');
-
-        if (tens != 1) {
-            switch (units) {
-                default: break;
-                case 1:
-                    builder.append(triad.sex.equals(Sex.MALE) ? WORD_1_MALE : WORD_1_FEMALE);
-                    break;
-                case 2:
-                    builder.append(triad.sex.equals(Sex.MALE) ? WORD_2_MALE : WORD_2_FEMALE);
-                    break;
-                case 3: builder.append(WORD_3); break;
-                case 4: builder.append(WORD_4); break;
-                case 5: builder.append(WORD_5); break;
-                case 6: builder.append(WORD_6); break;
-                case 7: builder.append(WORD_7); break;
-                case 8: builder.append(WORD_8); break;
-                case 9: builder.append(WORD_9); break;
-            }
-            if (units > 0) builder.append(' ');
+    }
+
+    /**
+     * Amount which does not fit long overloads in words, it is split into base 10^9 chunks once.
+     * @throws UnsupportedOperationException when integer part has more than 36 digits
+     */
+    static String renderChunks(BigInteger minorUnits, Currency c, Language language) {
+        BigInteger[] parts = minorUnits.abs().divideAndRemainder(BigInteger.TEN.pow(c.fractionDigits));
+        if (parts[0].compareTo(MAX_INTEGER_PART) > 0)
+            throw new UnsupportedOperationException("Amounts with more than 36 integer digits are not supported.");
+
+        StringBuilder out = new StringBuilder(INITIAL_CAPACITY);
+        try {
+            appendChunks(out, language, chunks(parts[0]), chunks(parts[1].longValue()),
+                    language.translate(c), minorUnits.signum() < 0);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new IllegalStateException(e);
         }
+        return out.toString();
+    }
+
+    /**
+     * Format amount in words using the currency specified and append the result to the buffer provided.
+     * Once the buffer has grown big enough nothing is allocated, so one buffer could be reused for many amounts.
+     * @param amount amount to be formatted
+     * @param currency currency to be used
+     * @param out buffer to append amount in words to
+     * @return the buffer passed
+     * @see businessObject.AmountInWords#format(long, Object)
+     */
+    public static <T> StringBuilder formatTo(long amount, T currency, StringBuilder out) {
+        return formatter.formatTo(amount, currency, out);
+    }
+
+    /**
+     * Format amount in words using the currency specified and write the result to the appendable provided.
+     * @param amount amount to be formatted
+     * @param currency currency to be used
+     * @param out appendable to write amount in words to
+     * @return the appendable passed
+     * @throws IOException propagated from the appendable
+     * @see businessObject.AmountInWords#format(long, Object)
+     */
+    public static <T> Appendable formatTo(long amount, T currency, Appendable out) throws IOException {
+        return formatter.formatTo(amount, currency, out);
+    }
+
+    /**
+     * Format amount in words using the currency specified and put the result into the buffer as UTF-8 bytes.
+     * Output is assembled from words encoded once, so neither String nor CharsetEncoder is involved
+     * and nothing is allocated in steady state. Both heap and direct buffers are supported.
+     * @param amount amount to be formatted
+     * @param currency currency to be used
+     * @param dst buffer to put amount in words to, starting at its position
+     * @return number of bytes written
+     * @throws BufferOverflowException when buffer has not enough room, buffer position is not changed then
+     * @see businessObject.AmountInWords#format(long, Object)
+     */
+    public static <T> int formatUtf8(long amount, T currency, ByteBuffer dst) {
+        return formatter.formatUtf8(amount, currency, dst);
+    }
+
+    /**
+     * Format all amounts in words using the currency specified.
+     * Currency is resolved once per batch, big batches are split between cores.
+     * @param amounts amounts to be formatted
+     * @param currency currency to be used for all amounts
+     * @return amounts in words in the same order as amounts
+     * @see businessObject.AmountInWords#format(long, Object)
+     */
+    public static <T> String[] formatAll(long[] amounts, T currency) {
+        return formatter.formatAll(amounts, currency);
+    }
+
+    /**
+     * Format all amounts in words, each one in its own currency.
+     * Currency codes are resolved against one registry snapshot taken per batch,
+     * big batches are split between cores.
+     * @param amounts amounts to be formatted
+     * @param currencyCodes digit codes of registered currencies, one per amount
+     * @return amounts in words in the same order as amounts
+     * @throws IllegalArgumentException when arrays lengths differ or some currency is not registered
+     */
+    public static String[] formatAll(long[] amounts, int[] currencyCodes) {
+        return formatter.formatAll(amounts, currencyCodes);
+    }
+
+    /**
+     * Format all amounts in words using the currency specified into the off-heap arena, as UTF-8 bytes.
+     * Words are assembled the same way as by {@link #formatUtf8(long, Object, ByteBuffer)}, so no String
+     * is created per amount. Previous batch of the arena is cleared, big batches are split between cores.
+     * @param amounts amounts to be formatted
+     * @param currency currency to be used for all amounts
+     * @param arena arena to put amounts in words to
+     * @return the arena passed, holding amounts in words in the same order as amounts
+     */
+    public static <T> Utf8Arena formatAll(long[] amounts, T currency, Utf8Arena arena) {
+        return formatter.formatAll(amounts, currency, arena);
+    }
+
+    /**
+     * Format all amounts in words, each one in its own currency, into the off-heap arena.
+     * @param amounts amounts to be formatted
+     * @param currencyCodes digit codes of registered currencies, one per amount
+     * @param arena arena to put amounts in words to
+     * @return the arena passed, holding amounts in words in the same order as amounts
+     * @throws IllegalArgumentException when arrays lengths differ or some currency is not registered
+     * @see #formatAll(long[], Object, Utf8Arena)
+     */
+    public static Utf8Arena formatAll(long[] amounts, int[] currencyCodes, Utf8Arena arena) {
+        return formatter.formatAll(amounts, currencyCodes, arena);
+    }
+
+    /**
+     * Format all amounts of the stream in words keeping encounter order, parallel streams are formatted in parallel.
+     * @param amounts amounts to be formatted
+     * @param currency currency to be used for all amounts
+     * @return amounts in words
+     */
+    public static <T> String[] formatAll(LongStream amounts, T currency) {
+        return formatter.formatAll(amounts, currency);
+    }
+
+    /**
+     * Function which formats amounts in words using the currency specified, e.g.
+     * <code>amounts.parallel().mapToObj(AmountInWords.inWords(AmountInWords.USD))</code>.
+     * Currency is resolved once when the function is created.
+     * @param currency currency to be used
+     * @return formatting function
+     */
+    public static <T> LongFunction<String> inWords(T currency) {
+        return formatter.inWords(currency);
+    }
 
-        builder.append(ending(triad, value));
+    /**
+     * Formatter of amounts which differ from the previous ones mostly in lower triads, e.g. sorted or
+     * incrementing amounts, words of unchanged greater triads are reused rather than rendered again.
+     * Currency is resolved once when the formatter is created. Formatter is not thread safe.
+     * @param currency currency to be used
+     * @return formatter giving the same words as {@link #format(long, Object)}
+     */
+    public static <T> SequentialFormatter sequential(T currency) {
+        return formatter.sequential(currency);
+    }
 
+    /**
+     * The same as {@link #sequential(Object)} in the language of the locale.
+     * @throws IllegalArgumentException when there is no language pack for the locale
+     */
+    public static <T> SequentialFormatter sequential(T currency, Locale locale) {
+        return formatter.sequential(currency, locale);
+    }
+
+    /**
+     * Parse amount written in words, the inverse of {@link #format(long, Object)}.
+     * Text is accepted only in the form format produces: endings and genders should agree with numerals
+     * and zero values are written the same way, while case and runs of spaces are ignored.
+     * Parsing is done in one pass over the text and does not allocate.
+     * @param words amount in words
+     * @param currency currency the amount is written in
+     * @return amount in hundredths, or in units of 10^-fractionDigits for other currencies
+     * @throws IllegalArgumentException when text is not an amount in words of the currency
+     */
+    public static <T> long parse(CharSequence words, T currency) {
+        return formatter.parse(words, currency);
+    }
+
+    /**
+     * Parse amount written in words in the language of the locale.
+     * @param words amount in words
+     * @param currency currency the amount is written in
+     * @param locale locale of the language, only its language is taken into account
+     * @return amount in hundredths, or in units of 10^-fractionDigits for other currencies
+     * @throws IllegalArgumentException when text is not an amount in words of the currency
+     *                                  or there is no language pack for the locale
+     * @see businessObject.AmountInWords#parse(CharSequence, Object)
+     */
+    public static <T> long parse(CharSequence words, T currency, Locale locale) {
+        return formatter.parse(words, currency, locale);
+    }
+
+    /**
+     * Check that amount written in words is the amount given, e.g. when payment orders are reconciled.
+     * Malformed text is not an error here, so it could be used to validate documents in bulk.
+     * @param words amount in words
+     * @param amount expected amount, in hundredths
+     * @param currency currency the amount is written in
+     * @return whether words parse to the amount
+     * @see businessObject.AmountInWords#parse(CharSequence, Object)
+     */
+    public static <T> boolean matches(CharSequence words, long amount, T currency) {
+        return formatter.matches(words, amount, currency);
+    }
+
+
+    static void checkAmount(long amount) {
+        if (amount > MAX_AMOUNT || amount < -MAX_AMOUNT) throw unsupportedAmount();
+    }
+
+    static UnsupportedOperationException unsupportedAmount() {
+        return new UnsupportedOperationException("Amounts grater than 999'999'999'999'999.00 are not supported.");
+    }
+
+    static String render(long amount, Currency c, Language language, StringBuilder builder) {
+        builder.setLength(0);
+        appendAmount(builder, language, amount, c);
         return builder.toString();
     }
 
-    private static String ending(Triad triad, int value) {
-        int tens = (value % 100) / 10;
-        int units = value % 10;
+    /** Append amount in words, amount is expected to be checked already. */
+    static void appendAmount(StringBuilder out, Language language, long amount, Currency c) {
+        try {
+            appendAmount((Appendable) out, language, amount, c);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void appendAmount(Appendable out, Language language, long amount, Currency c)
+            throws IOException {
+        c = language.translate(c);
+        if (c.fractionDigits != DEFAULT_FRACTION_DIGITS) {
+            long magnitude = Math.abs(amount);
+            long unit = POWERS_OF_TEN[c.fractionDigits];
+            appendChunks(out, language, chunks(magnitude / unit), chunks(magnitude % unit), c, amount < 0);
+            return;
+        }
+
+        for (int power = LONG_SCALES; power > 0; power--) appendScale(out, language, amount, power);
+        appendUnits(out, language, amount, c);
+    }
+
+    /** Append triad of thousands, millions and so on of amount in hundredths, nothing when the triad is zero. */
+    static void appendScale(Appendable out, Language language, long amount, int power) throws IOException {
+        Language.Scale scale = language.scales[power];
+        appendTriad(out, language, scale.one, scale.two, scale.five, scale.sex, triad(amount, power), false, false);
+    }
 
-        if (tens == 1) return triad.five + " ";
+    /** Append units and cents of amount in hundredths, currency is expected to be translated already. */
+    static void appendUnits(Appendable out, Language language, long amount, Currency c) throws IOException {
+        boolean notEmpty = (amount / 100 / 1000 ) == 0;
+        appendTriad(out, language, c.oneInteger, c.twoIntegers, c.fiveIntegers, c.integerSex,
+                (int) (amount / 100 % 1000), true, notEmpty);
+        appendTriad(out, language, c.oneFraction, c.twoFractions, c.fiveFractions, c.fractionSex,
+                (int) (amount % 100), true, true);
+    }
 
-        String ending;
-        switch (units) {
-            default: ending = triad.five; break;
-            case 1:  ending = triad.one; break;
-            case 2:
-            case 3:
-            case 4:  ending = triad.two; break;
+    /** Triad of amount in hundredths, triad 1 holds thousands, triad 2 millions and so on. */
+    static int triad(long amount, int power) {
+        return (int) (amount / POWERS_OF_TEN[3 * power + 2] % 1000);
+    }
+
+
+    /**
+     * Append amount given as integer and fraction parts split into base 10^9 chunks, least significant first.
+     * Triads are taken from chunks by int arithmetic and written the same way as by the long path,
+     * including rendering of negative amounts. Fraction part is omitted for currencies without fraction digits.
+     */
+    private static void appendChunks(Appendable out, Language language, int[] integer, int[] fraction, Currency c,
+                                     boolean negative) throws IOException {
+        appendChunks(out, language, integer, c.oneInteger, c.twoIntegers, c.fiveIntegers, c.integerSex, negative);
+        if (c.fractionDigits > 0)
+            appendChunks(out, language, fraction, c.oneFraction, c.twoFractions, c.fiveFractions, c.fractionSex,
+                    negative);
+    }
+
+    private static void appendChunks(Appendable out, Language language, int[] chunks, String one, String two,
+                                     String five, Sex sex, boolean negative) throws IOException {
+        boolean belowThousand = true;
+        for (int power = chunks.length * 3 - 1; power > 0; power--) {
+            int value = triad(chunks, power);
+            if (value == 0) continue;
+            belowThousand = false;
+            Language.Scale scale = language.scales[power];
+            appendTriad(out, language, scale.one, scale.two, scale.five, scale.sex, negative ? -value : value,
+                    false, false);
+        }
+
+        int value = triad(chunks, 0);
+        appendTriad(out, language, one, two, five, sex, negative ? -value : value, true, belowThousand);
+    }
+
+    /** Triad with the number given, triad 0 holds units, triad 1 thousands and so on. */
+    private static int triad(int[] chunks, int power) {
+        int chunk = chunks[power / 3];
+        switch (power % 3) {
+            case 0:  return chunk % 1000;
+            case 1:  return chunk / 1000 % 1000;
+            default: return chunk / 1000000;
         }
-        return ending + " ";
     }
 
+    private static int[] chunks(long value) {
+        return new int[] { (int) (value % CHUNK), (int) (value / CHUNK % CHUNK), (int) (value / CHUNK / CHUNK) };
+    }
 
-    private static class Triad {
-        static final Triad THOUSAND = new Triad(THOUSAND_ONE, THOUSAND_TWO, THOUSAND_FIVE, Sex.FEMALE, 3);
-        static final Triad MILLION = new Triad(MILLION_ONE, MILLION_TWO, MILLION_FIVE, Sex.MALE, 6);
-        static final Triad BILLION = new Triad(BILLION_ONE, BILLION_TWO, BILLION_FIVE, Sex.MALE, 9);
-        static final Triad TRILLION = new Triad(TRILLION_ONE, TRILLION_TWO, TRILLION_FIVE, Sex.MALE, 12);
+    private static int[] chunks(BigInteger value) {
+        if (value.bitLength() < 63) return chunks(value.longValue());
 
-        private Triad(String one, String two, String five, Sex sex, long divisor) {
-            this (one, two, five, sex, false, false, divisor);
+        int[] chunks = new int[(value.bitLength() + 29) / 29];
+        for (int i = 0; value.signum() > 0; i++) {
+            BigInteger[] parts = value.divideAndRemainder(BIG_CHUNK);
+            chunks[i] = parts[1].intValue();
+            value = parts[0];
         }
+        return chunks;
+    }
 
-        private Triad(String one, String two, String five, Sex sex, boolean zero) {
-            this (one, two, five, sex, true, zero, 0);
+
+    /**
+     * Append word form of the triad value followed by the triad ending.
+     * Words are taken from the precomputed tables of the language, so the only work left per triad
+     * is picking the ending by its plural category.
+     * @param mandatory triad must be present in word representation
+     * @param zero zero triad value should not be omitted but represented as 0 instead,
+     *             it is set when the triad is the whole number
+     */
+    private static void appendTriad(Appendable out, Language language, String one, String two, String five, Sex sex,
+                                    int value, boolean mandatory, boolean zero) throws IOException {
+        if (value == 0) {
+            if (!mandatory) return;
+            if (zero) out.append(language.zero).append(' ');
+            out.append(five).append(' ');
+            return;
         }
 
-        private Triad(String one, String two, String five, Sex sex, boolean mandatory, boolean zero, long power) {
-            this.one = one;
-            this.two = two;
-            this.five = five;
-            this.sex = sex;
-            this.mandatory = mandatory;
-            this.zero = zero;
-            this.power = power;
+        // triads of negative amounts are negative as well, they are rendered by ending only
+        if (value < 0) {
+            out.append(five).append(' ');
+            return;
         }
 
-        String one;
-        String two;
-        String five;
-        Sex sex;
-        // triad must be present in word representation
-        boolean mandatory;
-        // zero triad value should not be omitted but represented as 0 instead
-        boolean zero;
-        long power = 0;
+        out.append(language.triadWords[sex.ordinal()][value]);
+        switch (language.plural(value, zero)) {
+            case Language.PLURAL_ONE: out.append(one); break;
+            case Language.PLURAL_TWO: out.append(two); break;
+            default:         out.append(five); break;
+        }
+        out.append(' ');
+    }
+
 
-        int getTriadFromAmount(long amount) {
-            long divisor = (long) Math.pow(10, power + 2);
-            return (int) (amount / divisor % 1000);
+    /**
+     * Put amount in words as UTF-8 bytes, amount is expected to be checked already.
+     * @return number of bytes written
+     * @throws BufferOverflowException when buffer has not enough room, buffer position is not changed then
+     */
+    static int putAmount(ByteBuffer dst, long amount, Currency c) {
+        if (c.fractionDigits != DEFAULT_FRACTION_DIGITS) {
+            // words are precomputed for currencies with cents only
+            byte[] bytes = render(amount, c, Language.DEFAULT, new StringBuilder(INITIAL_CAPACITY))
+                    .getBytes(StandardCharsets.UTF_8);
+            dst.put(bytes);
+            return bytes.length;
         }
+        Utf8Endings endings = c.utf8Endings();
+        Language language = Language.DEFAULT;
+
+        int start = dst.position();
+        try {
+            for (int power = LONG_SCALES; power > 0; power--) {
+                Language.Scale scale = language.scales[power];
+                putTriad(dst, language, scale.utf8, scale.sex, triad(amount, power), false, false);
+            }
+
+            boolean notEmpty = (amount / 100 / 1000 ) == 0;
+            putTriad(dst, language, endings.integer, c.integerSex, (int) (amount / 100 % 1000), true, notEmpty);
+            putTriad(dst, language, endings.fraction, c.fractionSex, (int) (amount % 100), true, true);
+        } catch (BufferOverflowException e) {
+            dst.position(start);
+            throw e;
+        }
+        return dst.position() - start;
     }
 
+    /** The same as {@link #appendTriad} but for UTF-8 encoded words, endings are indexed by plural category. */
+    private static void putTriad(ByteBuffer dst, Language language, byte[][] endings, Sex sex, int value,
+                                 boolean mandatory, boolean zero) {
+        if (value == 0) {
+            if (!mandatory) return;
+            if (zero) dst.put(language.zeroUtf8);
+            dst.put(endings[Language.PLURAL_FIVE]);
+            return;
+        }
+
+        if (value < 0) {
+            dst.put(endings[Language.PLURAL_FIVE]);
+            return;
+        }
+
+        dst.put(language.triadWordsUtf8[sex.ordinal()][value]).put(endings[language.plural(value, zero)]);
+    }
+
+    /** Currency endings encoded in UTF-8 together with the strings they were encoded from. */
+    private static final class Utf8Endings {
+        final String oneInteger, twoIntegers, fiveIntegers;
+        final String oneFraction, twoFractions, fiveFractions;
+        final byte[][] integer, fraction;
+
+        Utf8Endings(Currency c) {
+            oneInteger = c.oneInteger; twoIntegers = c.twoIntegers; fiveIntegers = c.fiveIntegers;
+            oneFraction = c.oneFraction; twoFractions = c.twoFractions; fiveFractions = c.fiveFractions;
+            integer = Language.utf8(oneInteger, twoIntegers, fiveIntegers);
+            fraction = Language.utf8(oneFraction, twoFractions, fiveFractions);
+        }
+
+        boolean encodes(Currency c) {
+            return c.oneInteger == oneInteger && c.twoIntegers == twoIntegers && c.fiveIntegers == fiveIntegers
+                    && c.oneFraction == oneFraction && c.twoFractions == twoFractions && c.fiveFractions == fiveFractions;
+        }
+    }
+
+
+    /** Number of fraction digits of currencies with cents, only such amounts are formatted by the long path. */
+    static final int DEFAULT_FRACTION_DIGITS = 2;
+    static final int MAX_FRACTION_DIGITS = 18;
+
+    /** Greatest absolute value accepted by long overloads. */
+    static final long MAX_AMOUNT = 99999999999999999L;
+
+    /** Greatest integer part accepted by BigDecimal overloads, the one written by the greatest scale word. */
+    private static final BigInteger MAX_INTEGER_PART = BigInteger.TEN.pow(36).subtract(BigInteger.ONE);
+
+    private static final int CHUNK = 1000000000;
+    private static final BigInteger BIG_CHUNK = BigInteger.valueOf(CHUNK);
+
+    /** Capacity which fits the longest amount in words of built-in currencies, so the buffer is not grown. */
+    static final int INITIAL_CAPACITY = 256;
+
+    /** Scale triads written by the long path, the greatest is trillion. */
+    static final int LONG_SCALES = 4;
+
+    static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+            10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+            1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
     /** Default private constructor to avoid explicit instance creation. */
     private AmountInWords() { }
     
-    // this constants could be changed in order to use another language
+    // morphology of built-in currencies, numerals of every language are in language packs
     private static final String ONE_UAH_INEGER = "гривна";
     private static final String TWO_UAH_INTEGER = "гривны";
     private static final String FIVE_UAH_INTEGER = "гривен";
@@ -447,63 +1116,4 @@ public final class AmountInWords {
     private static final String ONE_RUB_FRACTION = "копейка";
     private static final String TWO_RUB_FRACTION = "копейки";
     private static final String FIVE_RUB_FRACTION = "копеек";
-
-    private static final String WORD_100 = "сто";
-    private static final String WORD_200 = "двести";
-    private static final String WORD_300 = "триста";
-    private static final String WORD_400 = "четыреста";
-    private static final String WORD_500 = "пятьсот";
-    private static final String WORD_600 = "шестьсот";
-    private static final String WORD_700 = "семьсот";
-    private static final String WORD_800 = "восемьсот";
-    private static final String WORD_900 = "девятьсот";
-
-    private static final String WORD_20 = "двадцать";
-    private static final String WORD_30 = "тридцать";
-    private static final String WORD_40 = "сорок";
-    private static final String WORD_50 = "пятьдесят";
-    private static final String WORD_60 = "шестьдесят";
-    private static final String WORD_70 = "семьдесят";
-    private static final String WORD_80 = "восемьдесят";
-    private static final String WORD_90 = "девяносто";
-
-    private static final String WORD_10 = "десять";
-    private static final String WORD_11 = "одиннадцать";
-    private static final String WORD_12 = "двенадцать";
-    private static final String WORD_13 = "тринадцать";
-    private static final String WORD_14 = "четырнадцать";
-    private static final String WORD_15 = "пятнадцать";
-    private static final String WORD_16 = "шестнадцать";
-    private static final String WORD_17 = "семнадцать";
-    private static final String WORD_18 = "восемнадцать";
-    private static final String WORD_19 = "девятнадцать";
-
-    private static final String WORD_0 = "ноль";
-    private static final String WORD_1_MALE = "один";
-    private static final String WORD_1_FEMALE = "одна";
-    private static final String WORD_2_MALE = "два";
-    private static final String WORD_2_FEMALE = "две";
-    private static final String WORD_3 = "три";
-    private static final String WORD_4 = "четыре";
-    private static final String WORD_5 = "пять";
-    private static final String WORD_6 = "шесть";
-    private static final String WORD_7 = "семь";
-    private static final String WORD_8 = "восемь";
-    private static final String WORD_9 = "девять";
-
-    private static final String THOUSAND_ONE = "тысяча";
-    private static final String THOUSAND_TWO = "тысячи";
-    private static final String THOUSAND_FIVE = "тысяч";
-
-    private static final String MILLION_ONE = "миллион";
-    private static final String MILLION_TWO = "миллиона";
-    private static final String MILLION_FIVE = "миллионов";
-
-    private static final String BILLION_ONE = "миллиард";
-    private static final String BILLION_TWO = "миллиарда";
-    private static final String BILLION_FIVE = "миллиардов";
-
-    private static final String TRILLION_ONE = "триллион";
-    private static final String TRILLION_TWO = "триллиона";
-    private static final String TRILLION_FIVE = "триллионов";
 }
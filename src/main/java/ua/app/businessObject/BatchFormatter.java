@@ -0,0 +1,90 @@
+package ua.app.businessObject;
+
+import java.util.concurrent.RecursiveAction;
+
+import ua.app.businessObject.AmountInWords.Currency;
+
+/**
+ * Fork/join task behind <code>AmountInWords.formatAll</code>.
+ * Batch called from a task of some ForkJoinPool is formatted in that pool, otherwise in the common pool.
+ * Batch is split in halves until parts are small enough, each part is formatted
+ * with single reused buffer and results are stored by index, so input order is kept.
+ * Batch formatted into {@link Utf8Arena} is stored by parts in segments of the arena instead.
+ * Amounts and currencies are expected to be validated by the caller.
+ */
+final class BatchFormatter extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    /** Batches smaller than this are formatted in the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /** Size of the part formatted by single task. */
+    private static final int LEAF_SIZE = 1 << 11;
+
+    private final long[] amounts;
+    private final Currency currency;
+    private final int[] currencyCodes;
+    private final AmountFormatter formatter;
+    private final String[] result;
+    private final Utf8Arena arena;
+    private final int from, to;
+
+    private BatchFormatter(AmountFormatter formatter, long[] amounts, Currency currency, int[] currencyCodes,
+                           String[] result, Utf8Arena arena, int from, int to) {
+        this.formatter = formatter;
+        this.amounts = amounts;
+        this.currency = currency;
+        this.currencyCodes = currencyCodes;
+        this.result = result;
+        this.arena = arena;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Format amounts either in single currency or, when currency is null, in currencies
+     * resolved by codes against registered currencies of the formatter, which never change.
+     */
+    static String[] format(AmountFormatter formatter, long[] amounts, Currency currency, int[] currencyCodes) {
+        String[] result = new String[amounts.length];
+        run(new BatchFormatter(formatter, amounts, currency, currencyCodes, result, null, 0, amounts.length));
+        return result;
+    }
+
+    /** The same as {@link #format(AmountFormatter, long[], Currency, int[])}, but into the arena. */
+    static void format(AmountFormatter formatter, long[] amounts, Currency currency, int[] currencyCodes,
+                       Utf8Arena arena) {
+        arena.start(amounts.length);
+        run(new BatchFormatter(formatter, amounts, currency, currencyCodes, null, arena, 0, amounts.length));
+        arena.finish(amounts.length);
+    }
+
+    private static void run(BatchFormatter task) {
+        // parts are forked into the pool of the calling task or into the common pool
+        if (task.to < PARALLEL_THRESHOLD) task.formatRange();
+        else task.invoke();
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= LEAF_SIZE) {
+            formatRange();
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new BatchFormatter(formatter, amounts, currency, currencyCodes, result, arena, from, middle),
+                new BatchFormatter(formatter, amounts, currency, currencyCodes, result, arena, middle, to));
+    }
+
+    private void formatRange() {
+        if (arena != null) {
+            arena.formatRange(formatter, amounts, currency, currencyCodes, from, to);
+            return;
+        }
+        StringBuilder builder = new StringBuilder(AmountInWords.INITIAL_CAPACITY);
+        for (int i = from; i < to; i++) {
+            Currency c = currency != null ? currency : formatter.byCode(currencyCodes[i]);
+            result[i] = formatter.toWords(amounts[i], c, builder);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+import ua.app.businessObject.AmountInWords.Sex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader of currency catalogues, UTF-8 text files with one ISO 4217 currency per line:
+ * <pre>
+ * # code=name;integer forms and gender;fraction forms and gender[;fraction digits]
+ * 392=JPY;иена,иены,иен,FEMALE;сэн,сэна,сэнов,MALE;0
+ * </pre>
+ * Forms are one, two and five, the same as currencies of language packs. Fraction digits are two when omitted,
+ * empty lines and lines starting with <code>#</code> are skipped.
+ *
+ * Currencies are returned in the order of the catalogue, so the whole catalogue is registered at once by
+ * <code>AmountInWords.registerAll(CurrencyCatalogue.read(path))</code>.
+ */
+public final class CurrencyCatalogue {
+
+    private CurrencyCatalogue() {}
+
+    /** @throws IllegalArgumentException when a line of the catalogue is malformed */
+    public static List<Currency> read(Path catalogue) throws IOException {
+        try (Reader in = Files.newBufferedReader(catalogue, StandardCharsets.UTF_8)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Catalogue read from UTF-8 stream, the stream is not closed.
+     * @throws IllegalArgumentException when a line of the catalogue is malformed
+     */
+    public static List<Currency> read(InputStream catalogue) throws IOException {
+        return read(new InputStreamReader(catalogue, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Catalogue read from characters, the reader is not closed.
+     * @throws IllegalArgumentException when a line of the catalogue is malformed
+     */
+    public static List<Currency> read(Reader catalogue) throws IOException {
+        BufferedReader lines = catalogue instanceof BufferedReader
+                ? (BufferedReader) catalogue : new BufferedReader(catalogue);
+        List<Currency> currencies = new ArrayList<Currency>();
+        String line;
+        for (int number = 1; (line = lines.readLine()) != null; number++) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            try {
+                currencies.add(currency(line));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Currency catalogue line " + number + " is malformed: " + line, e);
+            }
+        }
+        return currencies;
+    }
+
+    private static Currency currency(String line) {
+        int equals = line.indexOf('=');
+        if (equals < 0) throw new IllegalArgumentException("No code");
+        String[] parts = line.substring(equals + 1).split(";");
+        if (parts.length != 3 && parts.length != 4) throw new IllegalArgumentException("Got " + parts.length + " parts");
+
+        Currency c = new Currency(Integer.parseInt(line.substring(0, equals).trim()), parts[0].trim());
+        String[] integer = forms(parts[1]);
+        String[] fraction = forms(parts[2]);
+        c.oneInteger = integer[0];
+        c.twoIntegers = integer[1];
+        c.fiveIntegers = integer[2];
+        c.integerSex = Sex.valueOf(integer[3]);
+        c.oneFraction = fraction[0];
+        c.twoFractions = fraction[1];
+        c.fiveFractions = fraction[2];
+        c.fractionSex = Sex.valueOf(fraction[3]);
+        if (parts.length == 4) c.fractionDigits = Integer.parseInt(parts[3].trim());
+        return c;
+    }
+
+    private static String[] forms(String value) {
+        String[] items = value.split(",");
+        if (items.length != 4) throw new IllegalArgumentException("Forms should be one, two, five and gender");
+        for (int i = 0; i < items.length; i++) items[i] = items[i].trim();
+        return items;
+    }
+}
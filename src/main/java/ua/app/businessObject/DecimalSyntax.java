@@ -0,0 +1,154 @@
+package ua.app.businessObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Separators of amounts written as decimal text, e.g. <code>1234567.89</code> of XML or
+ * <code>1 234 567,89</code> of CSV, used by <code>AmountInWords.format(decimalText, currency, syntax)</code>.
+ *
+ * Text is an optional sign, digits of the integer part optionally split by grouping separators,
+ * then optionally the decimal separator and digits of the fraction. Spaces and tabs around it are ignored.
+ * Fraction may have fewer digits than the currency, more of them only when the extra ones are zeros.
+ * Text is read in one pass straight into minor units of the currency, no String nor number object is created.
+ */
+public final class DecimalSyntax {
+    /** Decimal point and no grouping, as amounts are written by XML and <code>BigDecimal.toPlainString()</code>. */
+    public static final DecimalSyntax PLAIN = new DecimalSyntax('.', "");
+
+    /** Decimal comma and grouping by spaces, including no-break ones, as amounts are written in Ukraine. */
+    public static final DecimalSyntax SPACED = new DecimalSyntax(',', " \u00A0\u202F");
+
+    private final char decimalSeparator;
+    private final String groupingSeparators;
+
+    private DecimalSyntax(char decimalSeparator, String groupingSeparators) {
+        this.decimalSeparator = decimalSeparator;
+        this.groupingSeparators = groupingSeparators;
+    }
+
+    /**
+     * @param decimalSeparator separator of the fraction
+     * @param groupingSeparators any of these characters could separate digits of the integer part, could be empty
+     * @throws IllegalArgumentException when separators are digits, signs or the same
+     */
+    public static DecimalSyntax of(char decimalSeparator, String groupingSeparators) {
+        if (groupingSeparators == null) throw new IllegalArgumentException("Grouping separators should not be null");
+        String separators = decimalSeparator + groupingSeparators;
+        for (int i = 0; i < separators.length(); i++) {
+            char c = separators.charAt(i);
+            if (c >= '0' && c <= '9' || c == '-' || c == '+' || separators.indexOf(c, i + 1) >= 0)
+                throw new IllegalArgumentException("Separators \"" + separators + "\" should be distinct non-digits");
+        }
+        return new DecimalSyntax(decimalSeparator, groupingSeparators);
+    }
+
+    public char getDecimalSeparator() { return decimalSeparator; }
+    public String getGroupingSeparators() { return groupingSeparators; }
+
+    public String toString() {
+        return "DecimalSyntax[decimal=" + decimalSeparator + ", grouping=" + groupingSeparators + "]";
+    }
+
+
+    /**
+     * Amount of the text in units of 10^-fractionDigits.
+     * @throws IllegalArgumentException when text is malformed
+     * @throws UnsupportedOperationException when amount is out of the supported range
+     */
+    long minorUnits(CharSequence text, int fractionDigits) {
+        return minorUnits(text, null, 0, text.length(), fractionDigits);
+    }
+
+    /** The same as {@link #minorUnits(CharSequence, int)} for UTF-8 bytes from position to limit of the buffer. */
+    long minorUnits(ByteBuffer text, int fractionDigits) {
+        return minorUnits(null, text, text.position(), text.limit(), fractionDigits);
+    }
+
+    /**
+     * Either characters or bytes are given. Multibyte UTF-8 characters are decoded only when met,
+     * since all but grouping separators are ASCII.
+     */
+    private long minorUnits(CharSequence chars, ByteBuffer bytes, int from, int to, int fractionDigits) {
+        while (from < to && isBlank(chars != null ? chars.charAt(from) : bytes.get(from))) from++;
+        while (to > from && isBlank(chars != null ? chars.charAt(to - 1) : bytes.get(to - 1))) to--;
+
+        int i = from;
+        boolean negative = false;
+        if (i < to) {
+            int first = chars != null ? chars.charAt(i) : bytes.get(i);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i++;
+            }
+        }
+
+        long value = 0;
+        int digits = 0, fraction = -1;
+        boolean grouped = false;
+        while (i < to) {
+            int start = i;
+            int c;
+            if (chars != null) c = chars.charAt(i++);
+            else {
+                c = bytes.get(i++);
+                if (c < 0) {
+                    int length = c >= -64 && c < -32 ? 2 : c >= -32 && c < -16 ? 3 : 0;
+                    c = length == 0 || i + length - 1 > to ? -1 : decode(bytes, i - 1, length);
+                    i = start + Math.max(length, 1);
+                }
+            }
+
+            if (c >= '0' && c <= '9') {
+                digits++;
+                grouped = false;
+                if (fraction >= 0 && ++fraction > fractionDigits) {
+                    // extra fraction digits are welcome only as trailing zeros
+                    if (c != '0') throw malformed(chars, bytes, from, to, start, "has more than " + fractionDigits
+                            + " fraction digits");
+                    continue;
+                }
+                value = value * 10 + (c - '0');
+                if (value > AmountInWords.MAX_AMOUNT) throw AmountInWords.unsupportedAmount();
+            } else if (c == decimalSeparator && fraction < 0 && !grouped) {
+                fraction = 0;
+            } else if (c >= 0 && fraction < 0 && digits > 0 && !grouped && groupingSeparators.indexOf(c) >= 0) {
+                grouped = true;
+            } else throw malformed(chars, bytes, from, to, start, "is malformed");
+        }
+        if (digits == 0 || grouped) throw malformed(chars, bytes, from, to, i, "is malformed");
+
+        int missing = fractionDigits - Math.max(Math.min(fraction, fractionDigits), 0);
+        if (value > AmountInWords.MAX_AMOUNT / AmountInWords.POWERS_OF_TEN[missing]) throw AmountInWords.unsupportedAmount();
+        value *= AmountInWords.POWERS_OF_TEN[missing];
+        return negative ? -value : value;
+    }
+
+    /** Code point of two or three byte UTF-8 sequence, -1 when the sequence is broken. */
+    private static int decode(ByteBuffer bytes, int index, int length) {
+        int c = bytes.get(index) & (length == 2 ? 0x1F : 0x0F);
+        for (int i = 1; i < length; i++) {
+            int next = bytes.get(index + i);
+            if ((next & 0xC0) != 0x80) return -1;
+            c = c << 6 | next & 0x3F;
+        }
+        return c;
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static IllegalArgumentException malformed(CharSequence chars, ByteBuffer bytes, int from, int to,
+                                                      int position, String problem) {
+        String text;
+        if (chars != null) text = chars.subSequence(from, to).toString();
+        else {
+            byte[] copy = new byte[to - from];
+            for (int i = 0; i < copy.length; i++) copy[i] = bytes.get(from + i);
+            text = new String(copy, StandardCharsets.UTF_8);
+        }
+        return new IllegalArgumentException("Amount text " + problem + " at position " + (position - from) + ": "
+                + text);
+    }
+}
@@ -0,0 +1,238 @@
+package ua.app.businessObject;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of formatting calls, could be enabled by {@link AmountInWords#setMetrics(FormatMetrics)}
+ * or {@link AmountFormatter#withMetrics(FormatMetrics)} and published by {@link #registerMBean(String)}.
+ *
+ * Every counter is a {@link LongAdder}, so threads formatting at once do not contend for one cache line.
+ * Latency histograms are kept per currency code as power of two buckets of adders, created on first use
+ * of the code. Nothing is locked on the formatting path. Formatters without metrics only check that
+ * metrics are null.
+ */
+public final class FormatMetrics implements FormatMetricsMXBean {
+    /** Only currencies with codes 0..999 have their own histogram, others share the last slot. */
+    private static final int CODES = 1000;
+
+    /** Bucket i counts latencies below 2^i ns, the last one takes everything longer than a second. */
+    private static final int BUCKETS = 31;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder amounts = new LongAdder();
+    private final LongAdder rejectedAmounts = new LongAdder();
+    private final LongAdder rejectedArguments = new LongAdder();
+    private final LongAdder registryChanges = new LongAdder();
+
+    private final AtomicReferenceArray<Histogram> histograms = new AtomicReferenceArray<Histogram>(CODES + 1);
+
+    /** Cache of the formatter metrics were last attached to. */
+    private volatile ResultCache cache;
+
+    public long getCalls() { return calls.sum(); }
+    public long getAmounts() { return amounts.sum(); }
+    /** Amounts rejected as too big to be formatted. */
+    public long getRejectedAmounts() { return rejectedAmounts.sum(); }
+    /** Calls rejected by IllegalArgumentException, e.g. for unknown currency. */
+    public long getRejectedArguments() { return rejectedArguments.sum(); }
+    public long getRegistryChanges() { return registryChanges.sum(); }
+
+    public long getCacheHits() {
+        ResultCache c = cache;
+        return c == null ? 0 : c.hits();
+    }
+
+    public long getCacheMisses() {
+        ResultCache c = cache;
+        return c == null ? 0 : c.misses();
+    }
+
+    public double getCacheHitRatio() {
+        long hits = getCacheHits(), total = hits + getCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public Map<String, Long> getAmountsByCurrency() {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (int i = 0; i <= CODES; i++) {
+            Histogram histogram = histograms.get(i);
+            if (histogram != null) result.put(key(i), histogram.count());
+        }
+        return result;
+    }
+
+    public Map<String, Long> getMedianNanosByCurrency() {
+        return percentiles(0.5);
+    }
+
+    public Map<String, Long> getP99NanosByCurrency() {
+        return percentiles(0.99);
+    }
+
+    /**
+     * Latency percentile of amounts formatted in the currency.
+     * @param code digit currency code
+     * @param percentile 0..1
+     * @return upper bound of the bucket the percentile falls into in nanoseconds, 0 when nothing was formatted
+     */
+    public long percentileNanos(int code, double percentile) {
+        Histogram histogram = histograms.get(slot(code));
+        return histogram == null ? 0 : histogram.percentile(percentile);
+    }
+
+    /** Drop all counters, histograms of currencies are dropped as well. */
+    public void reset() {
+        calls.reset();
+        amounts.reset();
+        rejectedAmounts.reset();
+        rejectedArguments.reset();
+        registryChanges.reset();
+        for (int i = 0; i <= CODES; i++) histograms.set(i, null);
+    }
+
+    /**
+     * Register metrics in the platform MBean server as <code>ua.app.businessObject:type=FormatMetrics,name=...</code>.
+     * @param name name which tells metrics of different formatters apart
+     * @return name metrics are registered with
+     * @throws IllegalStateException when metrics could not be registered, e.g. the name is taken
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics " + name + " could not be registered", e);
+        }
+    }
+
+    /** Remove metrics registered with the name from the platform MBean server, if any. */
+    public static void unregisterMBean(String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(objectName))
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics " + name + " could not be unregistered", e);
+        }
+    }
+
+    public String toString() {
+        return "FormatMetrics[calls=" + getCalls() + ", amounts=" + getAmounts() + ", rejectedAmounts="
+                + getRejectedAmounts() + ", rejectedArguments=" + getRejectedArguments() + ", registryChanges="
+                + getRegistryChanges() + "]";
+    }
+
+
+    void attach(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /** Single amount formatted. */
+    void formatted(int code, long nanos) {
+        calls.increment();
+        amounts.increment();
+        histogram(code).add(nanos);
+    }
+
+    /** Batch formatted, its latency is spread evenly over its amounts. */
+    void formattedAll(int[] codes, int code, int size, long nanos) {
+        calls.increment();
+        amounts.add(size);
+        if (size == 0) return;
+
+        long perAmount = nanos / size;
+        if (codes == null) histogram(code).add(perAmount, size);
+        else for (int c : codes) histogram(c).add(perAmount);
+    }
+
+    void rejected(RuntimeException e) {
+        calls.increment();
+        if (e instanceof UnsupportedOperationException) rejectedAmounts.increment();
+        else rejectedArguments.increment();
+    }
+
+    void registryChanged() {
+        registryChanges.increment();
+    }
+
+    private Histogram histogram(int code) {
+        int slot = slot(code);
+        Histogram histogram = histograms.get(slot);
+        if (histogram == null) {
+            histograms.compareAndSet(slot, null, new Histogram());
+            histogram = histograms.get(slot);
+        }
+        return histogram;
+    }
+
+    private static int slot(int code) {
+        return code >= 0 && code < CODES ? code : CODES;
+    }
+
+    private static String key(int slot) {
+        return slot < CODES ? String.valueOf(slot) : "other";
+    }
+
+    private Map<String, Long> percentiles(double percentile) {
+        Map<String, Long> result = new TreeMap<String, Long>();
+        for (int i = 0; i <= CODES; i++) {
+            Histogram histogram = histograms.get(i);
+            if (histogram != null) result.put(key(i), histogram.percentile(percentile));
+        }
+        return result;
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("ua.app.businessObject:type=FormatMetrics,name=" + ObjectName.quote(name));
+    }
+
+
+    /** Latencies counted in power of two buckets. */
+    private static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+        }
+
+        void add(long nanos) {
+            buckets[bucket(nanos)].increment();
+        }
+
+        void add(long nanos, int times) {
+            buckets[bucket(nanos)].add(times);
+        }
+
+        long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) count += bucket.sum();
+            return count;
+        }
+
+        long percentile(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) total += counts[i] = buckets[i].sum();
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return 1L << i;
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        private static int bucket(long nanos) {
+            return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+        }
+    }
+}
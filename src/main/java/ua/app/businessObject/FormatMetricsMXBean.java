@@ -0,0 +1,25 @@
+package ua.app.businessObject;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link FormatMetrics}, maps are keyed by digit currency code.
+ * Latencies are upper bounds of power of two buckets, in nanoseconds.
+ */
+public interface FormatMetricsMXBean {
+    long getCalls();
+    long getAmounts();
+    long getRejectedAmounts();
+    long getRejectedArguments();
+    long getRegistryChanges();
+
+    long getCacheHits();
+    long getCacheMisses();
+    double getCacheHitRatio();
+
+    Map<String, Long> getAmountsByCurrency();
+    Map<String, Long> getMedianNanosByCurrency();
+    Map<String, Long> getP99NanosByCurrency();
+
+    void reset();
+}
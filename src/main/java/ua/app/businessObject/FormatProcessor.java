@@ -0,0 +1,358 @@
+package ua.app.businessObject;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reactive stage of {@link java.util.concurrent.Flow} which formats amounts in words, e.g.
+ * <code>publisher.subscribe(processor); processor.subscribe(subscriber);</code> with
+ * <code>processor = FormatProcessor.amounts(AmountInWords.getFormatter(), AmountInWords.USD)</code>.
+ *
+ * Items are amounts in hundredths or, for {@link #payments}, any items carrying amount and digit currency code.
+ * No more items than the buffer size are requested from upstream ahead of what the subscriber has taken,
+ * so the stage never holds more of them than that. Buffered items are formatted on the executor in
+ * micro-batches by <code>formatAll</code>, only when the subscriber has demand, and emitted in the order
+ * they came.
+ *
+ * Processor has single subscriber. Its cancellation cancels upstream and drops buffered items. Amount which
+ * could not be formatted fails the stream: buffered items are dropped, upstream is cancelled and the error is
+ * signalled to the subscriber. Upstream error is signalled at once as well, while completion waits until
+ * buffered items are emitted.
+ *
+ * Flow interfaces come with Java 9, which the library is built for.
+ */
+public final class FormatProcessor<T> implements Flow.Processor<T, String> {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final String[] NO_WORDS = new String[0];
+
+    private final AmountFormatter formatter;
+    /** Currency of all amounts, null when every item carries its own currency code. */
+    private final Object currency;
+    private final ToLongFunction<? super T> amountOf;
+    private final ToIntFunction<? super T> currencyCodeOf;
+    private final Executor executor;
+    private final int batchSize;
+    /** Items emitted before upstream is asked for more of them. */
+    private final int replenish;
+
+    // ring of accepted items, guarded by this, its capacity is the buffer size
+    private final long[] amounts;
+    private final int[] codes;
+    private int head, count;
+
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<Flow.Subscription>();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private volatile Flow.Subscriber<? super String> downstream;
+    private final AtomicLong requested = new AtomicLong();
+
+    /** Upstream completed or the stream failed, error is set before. */
+    private volatile boolean done;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+
+    /** Number of drain requests, drain runs on the executor while it is not zero. */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // touched by drain only
+    private String[] batch = NO_WORDS;
+    private int emitted;
+    private int consumed;
+    private boolean terminated;
+
+    private FormatProcessor(AmountFormatter formatter, Object currency, ToLongFunction<? super T> amountOf,
+                            ToIntFunction<? super T> currencyCodeOf, Executor executor, int bufferSize, int batchSize) {
+        if (formatter == null || executor == null) throw new NullPointerException("Formatter and executor are required");
+        if (bufferSize < 1 || batchSize < 1 || batchSize > bufferSize)
+            throw new IllegalArgumentException("Batch size " + batchSize + " should be within 1.." + bufferSize);
+        // currency is resolved once, so unknown one is rejected before the stream starts
+        if (currency != null) formatter.resolve(currency);
+
+        this.formatter = formatter;
+        this.currency = currency;
+        this.amountOf = amountOf;
+        this.currencyCodeOf = currencyCodeOf;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.replenish = Math.max(1, bufferSize / 2);
+        this.amounts = new long[bufferSize];
+        this.codes = currencyCodeOf != null ? new int[bufferSize] : null;
+    }
+
+    /** Processor of amounts in the currency, formatted on the common pool with default buffer and batch sizes. */
+    public static <C> FormatProcessor<Long> amounts(AmountFormatter formatter, C currency) {
+        return amounts(formatter, currency, ForkJoinPool.commonPool(), DEFAULT_BUFFER_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Processor of amounts in the currency.
+     * @param executor executor formatting micro-batches and signalling the subscriber
+     * @param bufferSize number of items requested from upstream ahead of the subscriber
+     * @param batchSize greatest number of items formatted at once, not greater than the buffer size
+     * @throws IllegalArgumentException when currency is not found or sizes are not positive
+     */
+    public static <C> FormatProcessor<Long> amounts(AmountFormatter formatter, C currency, Executor executor,
+                                                    int bufferSize, int batchSize) {
+        if (currency == null) throw new IllegalArgumentException("Currency should not be null");
+        return new FormatProcessor<Long>(formatter, currency, amount -> amount, null, executor, bufferSize,
+                batchSize);
+    }
+
+    /** Processor of items carrying amount and digit currency code, with defaults of {@link #amounts(AmountFormatter, Object)}. */
+    public static <T> FormatProcessor<T> payments(AmountFormatter formatter, ToLongFunction<? super T> amount,
+                                                  ToIntFunction<? super T> currencyCode) {
+        return payments(formatter, amount, currencyCode, ForkJoinPool.commonPool(), DEFAULT_BUFFER_SIZE,
+                DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Processor of items carrying amount and digit currency code of a registered currency.
+     * @see #amounts(AmountFormatter, Object, Executor, int, int)
+     */
+    public static <T> FormatProcessor<T> payments(AmountFormatter formatter, ToLongFunction<? super T> amount,
+                                                  ToIntFunction<? super T> currencyCode, Executor executor,
+                                                  int bufferSize, int batchSize) {
+        if (amount == null || currencyCode == null) throw new NullPointerException("Amount and currency are required");
+        return new FormatProcessor<T>(formatter, null, amount, currencyCode, executor, bufferSize, batchSize);
+    }
+
+
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "Subscription is null");
+        if (!upstream.compareAndSet(null, subscription) || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(amounts.length);
+    }
+
+    public void onNext(T item) {
+        Objects.requireNonNull(item, "Item is null");
+        if (done || cancelled) return;
+
+        long amount;
+        int code;
+        try {
+            amount = amountOf.applyAsLong(item);
+            code = currencyCodeOf != null ? currencyCodeOf.applyAsInt(item) : 0;
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+
+        boolean accepted;
+        synchronized (this) {
+            accepted = count < amounts.length;
+            if (accepted) {
+                int tail = (head + count) % amounts.length;
+                amounts[tail] = amount;
+                if (codes != null) codes[tail] = code;
+                count++;
+            }
+        }
+        if (accepted) drain();
+        else fail(new IllegalStateException("Got more than " + amounts.length + " items which were requested"));
+    }
+
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "Error is null");
+        if (done) return;
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        Objects.requireNonNull(subscriber, "Subscriber is null");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                public void request(long n) {}
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("FormatProcessor has a subscriber already"));
+            return;
+        }
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            public void request(long n) {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("Requested " + n + " items, should be positive"));
+                    return;
+                }
+                requested.getAndAccumulate(n, (demand, more) -> demand + more < 0 ? Long.MAX_VALUE : demand + more);
+                drain();
+            }
+
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        // signals are sent only after onSubscribe has returned
+        downstream = subscriber;
+        drain();
+    }
+
+    public String toString() {
+        synchronized (this) {
+            return "FormatProcessor[buffered=" + count + ", batch=" + batchSize + ", requested=" + requested
+                    + ", done=" + done + ", cancelled=" + cancelled + "]";
+        }
+    }
+
+
+    private void fail(Throwable e) {
+        if (done) return;
+        error = e;
+        done = true;
+        cancelUpstream();
+        drain();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) subscription.cancel();
+    }
+
+    /** Run drain on the executor unless it is running already, then it drains once more. */
+    private void drain() {
+        if (pending.getAndIncrement() != 0) return;
+        try {
+            executor.execute(this::drainLoop);
+        } catch (RejectedExecutionException e) {
+            // drain is not running, so it is safe to signal the failure from this thread
+            if (!done) {
+                error = e;
+                done = true;
+                cancelUpstream();
+            }
+            drainLoop();
+        }
+    }
+
+    private void drainLoop() {
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super String> subscriber = downstream;
+            if (!terminated && subscriber != null) emit(subscriber);
+            else if (cancelled) clear();
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /** Emit formatted items while there is demand, formatting the next batch when the current one is emitted. */
+    private void emit(Flow.Subscriber<? super String> subscriber) {
+        while (true) {
+            if (cancelled) {
+                terminated = true;
+                clear();
+                return;
+            }
+            Throwable failure = error;
+            if (failure != null) {
+                terminated = true;
+                clear();
+                subscriber.onError(failure);
+                return;
+            }
+
+            long demand = requested.get();
+            int sent = 0;
+            while (sent < demand && emitted < batch.length && !cancelled) {
+                String words = batch[emitted];
+                batch[emitted++] = null;
+                sent++;
+                try {
+                    subscriber.onNext(words);
+                } catch (RuntimeException e) {
+                    // subscriber broke the contract, its subscription is considered cancelled
+                    cancelled = true;
+                    cancelUpstream();
+                }
+            }
+            if (sent > 0) {
+                if (demand != Long.MAX_VALUE) requested.addAndGet(-sent);
+                requestUpstream(sent);
+                continue;
+            }
+            if (emitted < batch.length) return;
+
+            // completion needs no demand, upstream has sent everything when it is done
+            boolean completed = done;
+            if (isEmpty()) {
+                if (completed && error == null) {
+                    terminated = true;
+                    subscriber.onComplete();
+                }
+                return;
+            }
+            if (demand == 0) return;
+            nextBatch();
+        }
+    }
+
+    private synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** Format next items taken from the ring, there is at least one. */
+    private void nextBatch() {
+        long[] amounts;
+        int[] codes = null;
+        synchronized (this) {
+            int size = Math.min(count, batchSize);
+            amounts = new long[size];
+            if (this.codes != null) codes = new int[size];
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % this.amounts.length;
+                amounts[i] = this.amounts[index];
+                if (codes != null) codes[i] = this.codes[index];
+            }
+            head = (head + size) % this.amounts.length;
+            count -= size;
+        }
+
+        try {
+            batch = codes == null ? formatter.formatAll(amounts, currency) : formatter.formatAll(amounts, codes);
+        } catch (RuntimeException e) {
+            batch = NO_WORDS;
+            fail(e);
+        }
+        emitted = 0;
+    }
+
+    /** Ask upstream for as many items as were emitted, once enough of them were emitted. */
+    private void requestUpstream(int sent) {
+        consumed += sent;
+        if (consumed < replenish || done) return;
+        Flow.Subscription subscription = upstream.get();
+        if (subscription != null) subscription.request(consumed);
+        consumed = 0;
+    }
+
+    private void clear() {
+        synchronized (this) {
+            count = 0;
+        }
+        Arrays.fill(batch, emitted, batch.length, null);
+        batch = NO_WORDS;
+        emitted = 0;
+    }
+}
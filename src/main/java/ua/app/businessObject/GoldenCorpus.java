@@ -0,0 +1,328 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Golden corpus of amounts in words, which proves a rewrite of formatting gives exactly the same text as before.
+ *
+ * Corpus covers every amount of a range, e.g. 0..9 999 999, and amounts around every boundary of digits up to
+ * {@link AmountInWords#MAX_AMOUNT} (d * 10^k - 1, d * 10^k and d * 10^k + 1 for d of 1..99), in every currency
+ * registered in the formatter. Instead of text it keeps 64-bit hash of every block of {@link #BLOCK_SIZE}
+ * amounts, so tens of millions of amounts in words take a few hundred kilobytes. The file is memory-mapped on
+ * verification. Amounts are formatted and hashed by fork/join tasks in the common pool.
+ *
+ * Text is hashed four chars per 64-bit word by multiply and xor-shift in two interleaved lanes, which takes
+ * a third of time a char by char hash like FNV-1a takes, since every step waits for the multiply before it.
+ *
+ * File is little-endian: magic, version, block size, range from and to (exclusive), number of boundary amounts,
+ * number of currencies, currency codes, boundary amounts aligned to 8 bytes, then hashes of blocks
+ * currency by currency.
+ */
+public final class GoldenCorpus {
+    public static final int BLOCK_SIZE = 4096;
+
+    private static final int MAGIC = 0x41495747;
+    private static final int VERSION = 1;
+    /** Magic, version, block size, from, to, number of boundary amounts and number of currencies. */
+    private static final int HEADER_SIZE = 5 * 4 + 2 * 8;
+
+    /** Hashes of all currencies are kept in one array. */
+    private static final int MAX_HASHES = Integer.MAX_VALUE - 8;
+    /** Hashes written to the file at once. */
+    private static final int WRITE_HASHES = 1 << 16;
+
+    /** Blocks hashed by single task. */
+    private static final int LEAF_BLOCKS = 4;
+
+    private static final long MULTIPLIER = 0x9e3779b97f4a7c15L;
+
+    private final long from, to;
+    private final long[] boundaries;
+    private final Currency[] currencies;
+    private final int denseBlocks, blocks;
+
+    private GoldenCorpus(long from, long to, long[] boundaries, Currency[] currencies) {
+        this.from = from;
+        this.to = to;
+        this.boundaries = boundaries;
+        this.currencies = currencies;
+        long blocks = (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE + (boundaries.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (blocks * currencies.length > MAX_HASHES)
+            throw new IllegalArgumentException("Range " + from + ".." + to + " in " + currencies.length
+                    + " currencies needs more than " + MAX_HASHES + " hashes");
+        this.denseBlocks = (int) ((to - from + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        this.blocks = (int) blocks;
+    }
+
+    /**
+     * Format all amounts of the range and boundary amounts in every currency of the formatter and write
+     * hashes of them to the file.
+     * @param from first amount of the range, in hundredths
+     * @param to amount after the last one of the range
+     * @throws IllegalArgumentException when the range is empty, needs more than <code>Integer.MAX_VALUE - 8</code>
+     * hashes of blocks in all currencies or amounts of it could not be formatted
+     */
+    public static void write(Path file, AmountFormatter formatter, long from, long to) throws IOException {
+        if (from >= to || from < -AmountInWords.MAX_AMOUNT || to > AmountInWords.MAX_AMOUNT + 1)
+            throw new IllegalArgumentException("Range " + from + ".." + to + " is empty or too big");
+
+        List<Currency> registered = formatter.getCurrencies();
+        GoldenCorpus corpus = new GoldenCorpus(from, to, boundaries(),
+                registered.toArray(new Currency[registered.size()]));
+        long[] hashes = new long[corpus.currencies.length * corpus.blocks];
+        new Hashing(corpus, formatter, hashes, null, 1, null, 0, hashes.length).invoke();
+
+        ByteBuffer header = corpus.header();
+        ByteBuffer body = ByteBuffer.allocate(8 * Math.min(hashes.length, WRITE_HASHES)).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header);
+            for (int i = 0; i < hashes.length; i += WRITE_HASHES) {
+                int count = Math.min(hashes.length - i, WRITE_HASHES);
+                body.clear();
+                body.asLongBuffer().put(hashes, i, count);
+                body.limit(count * 8);
+                while (body.hasRemaining()) channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * Format amounts of the corpus in its currencies and compare them with the corpus.
+     * @return blocks formatted differently, empty when the formatter gives the same text
+     * @throws IllegalArgumentException when the file is not a corpus or its currency is not registered
+     */
+    public static List<Mismatch> verify(Path file, AmountFormatter formatter) throws IOException {
+        return verify(file, formatter, 1);
+    }
+
+    /**
+     * Compare only every n-th block of the range with the corpus, boundary amounts are always compared.
+     * @param sample 1 to compare all blocks
+     * @see #verify(Path, AmountFormatter)
+     */
+    public static List<Mismatch> verify(Path file, AmountFormatter formatter, int sample) throws IOException {
+        if (sample < 1) throw new IllegalArgumentException("Sample " + sample + " is not positive");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            GoldenCorpus corpus = read(mapped, formatter, file);
+
+            int size = corpus.currencies.length * corpus.blocks;
+            if (mapped.remaining() != size * 8L) throw new IllegalArgumentException(file + " is truncated");
+            LongBuffer golden = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+
+            ConcurrentLinkedQueue<Mismatch> mismatches = new ConcurrentLinkedQueue<Mismatch>();
+            new Hashing(corpus, formatter, null, golden, sample, mismatches, 0, size).invoke();
+
+            List<Mismatch> result = new ArrayList<Mismatch>(mismatches);
+            Collections.sort(result, Mismatch.ORDER);
+            return result;
+        }
+    }
+
+    /** Amounts around every d * 10^k for d of 1..99 up to the biggest amount, in ascending order. */
+    static long[] boundaries() {
+        TreeSet<Long> amounts = new TreeSet<Long>();
+        for (long power = 1; power <= AmountInWords.MAX_AMOUNT; power *= 10)
+            for (long d = 1; d < 100 && d <= AmountInWords.MAX_AMOUNT / power; d++) {
+                long amount = d * power;
+                amounts.add(amount - 1);
+                amounts.add(amount);
+                if (amount < AmountInWords.MAX_AMOUNT) amounts.add(amount + 1);
+            }
+        amounts.add(AmountInWords.MAX_AMOUNT);
+
+        long[] result = new long[amounts.size()];
+        int i = 0;
+        for (long amount : amounts) result[i++] = amount;
+        return result;
+    }
+
+    private ByteBuffer header() {
+        int size = align(HEADER_SIZE + 4 * currencies.length) + 8 * boundaries.length;
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(BLOCK_SIZE);
+        header.putLong(from).putLong(to);
+        header.putInt(boundaries.length).putInt(currencies.length);
+        for (Currency currency : currencies) header.putInt(currency.getCode());
+        header.position(align(header.position()));
+        for (long amount : boundaries) header.putLong(amount);
+        header.flip();
+        return header;
+    }
+
+    /** Read the header, mapped buffer is left at the first hash. */
+    private static GoldenCorpus read(ByteBuffer mapped, AmountFormatter formatter, Path file) {
+        if (mapped.remaining() < HEADER_SIZE || mapped.getInt() != MAGIC)
+            throw new IllegalArgumentException(file + " is not a golden corpus");
+        int version = mapped.getInt();
+        if (version != VERSION) throw new IllegalArgumentException(file + " has unknown version " + version);
+        int blockSize = mapped.getInt();
+        if (blockSize != BLOCK_SIZE) throw new IllegalArgumentException(file + " has blocks of " + blockSize);
+
+        long from = mapped.getLong(), to = mapped.getLong();
+        long[] boundaries = new long[mapped.getInt()];
+        Currency[] currencies = new Currency[mapped.getInt()];
+        for (int i = 0; i < currencies.length; i++) {
+            int code = mapped.getInt();
+            currencies[i] = formatter.byCode(code);
+            if (currencies[i] == null)
+                throw new IllegalArgumentException("Currency " + code + " of " + file + " is not registered");
+        }
+        mapped.position(align(mapped.position()));
+        for (int i = 0; i < boundaries.length; i++) boundaries[i] = mapped.getLong();
+        return new GoldenCorpus(from, to, boundaries, currencies);
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    private long amount(long index) {
+        long dense = to - from;
+        return index < dense ? from + index : boundaries[(int) (index - dense)];
+    }
+
+    /** Index of the first amount of the block, boundary blocks start right after the range. */
+    private long firstIndex(int block) {
+        return block < denseBlocks ? (long) block * BLOCK_SIZE
+                : (to - from) + (long) (block - denseBlocks) * BLOCK_SIZE;
+    }
+
+    private long lastIndex(int block) {
+        long end = block < denseBlocks ? to - from : (to - from) + boundaries.length;
+        return Math.min(firstIndex(block) + BLOCK_SIZE, end) - 1;
+    }
+
+
+    /** Hash blocks of the range of tasks, a task is block of one currency. */
+    private static final class Hashing extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final GoldenCorpus corpus;
+        private final AmountFormatter formatter;
+        private final long[] hashes;
+        private final LongBuffer golden;
+        private final int sample;
+        private final ConcurrentLinkedQueue<Mismatch> mismatches;
+        private final int start, end;
+
+        Hashing(GoldenCorpus corpus, AmountFormatter formatter, long[] hashes, LongBuffer golden, int sample,
+                ConcurrentLinkedQueue<Mismatch> mismatches, int start, int end) {
+            this.corpus = corpus;
+            this.formatter = formatter;
+            this.hashes = hashes;
+            this.golden = golden;
+            this.sample = sample;
+            this.mismatches = mismatches;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= LEAF_BLOCKS) {
+                hashRange();
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new Hashing(corpus, formatter, hashes, golden, sample, mismatches, start, middle),
+                    new Hashing(corpus, formatter, hashes, golden, sample, mismatches, middle, end));
+        }
+
+        private void hashRange() {
+            StringBuilder words = new StringBuilder(AmountInWords.INITIAL_CAPACITY);
+            char[] chars = new char[AmountInWords.INITIAL_CAPACITY];
+            for (int task = start; task < end; task++) {
+                Currency currency = corpus.currencies[task / corpus.blocks];
+                int block = task % corpus.blocks;
+                if (hashes == null && block < corpus.denseBlocks && block % sample != 0) continue;
+
+                long hash = block;
+                for (long i = corpus.firstIndex(block), last = corpus.lastIndex(block); i <= last; i++) {
+                    words.setLength(0);
+                    formatter.formatTo(corpus.amount(i), currency, words);
+                    if (chars.length < words.length()) chars = new char[words.length()];
+                    words.getChars(0, words.length(), chars, 0);
+                    hash = hash(hash, chars, words.length());
+                }
+
+                if (hashes != null) hashes[task] = hash;
+                else if (golden.get(task) != hash)
+                    mismatches.add(new Mismatch(currency.getCode(), corpus.amount(corpus.firstIndex(block)),
+                            corpus.amount(corpus.lastIndex(block)), block >= corpus.denseBlocks));
+            }
+        }
+    }
+
+
+    /** Hash of the text chained to hash of texts before it, lanes take eight chars by turns. */
+    private static long hash(long hash, char[] text, int length) {
+        long a = hash, b = ~hash;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            a = mix(a ^ (text[i] | (long) text[i + 1] << 16 | (long) text[i + 2] << 32 | (long) text[i + 3] << 48));
+            b = mix(b ^ (text[i + 4] | (long) text[i + 5] << 16 | (long) text[i + 6] << 32 | (long) text[i + 7] << 48));
+        }
+        long tail = length;
+        for (; i < length; i++) tail = tail * 31 + text[i];
+        return mix(mix(a ^ tail) ^ Long.rotateLeft(b, 17));
+    }
+
+    private static long mix(long word) {
+        long h = word * MULTIPLIER;
+        return h ^ h >>> 29;
+    }
+
+
+    /** Block of amounts of which at least one is formatted differently than in the corpus. */
+    public static final class Mismatch {
+        static final Comparator<Mismatch> ORDER = new Comparator<Mismatch>() {
+            public int compare(Mismatch a, Mismatch b) {
+                if (a.currencyCode != b.currencyCode) return a.currencyCode < b.currencyCode ? -1 : 1;
+                if (a.boundaries != b.boundaries) return a.boundaries ? 1 : -1;
+                return Long.compare(a.firstAmount, b.firstAmount);
+            }
+        };
+
+        private final int currencyCode;
+        private final long firstAmount, lastAmount;
+        private final boolean boundaries;
+
+        Mismatch(int currencyCode, long firstAmount, long lastAmount, boolean boundaries) {
+            this.currencyCode = currencyCode;
+            this.firstAmount = firstAmount;
+            this.lastAmount = lastAmount;
+            this.boundaries = boundaries;
+        }
+
+        public int getCurrencyCode() { return currencyCode; }
+        public long getFirstAmount() { return firstAmount; }
+        public long getLastAmount() { return lastAmount; }
+        /** Block is made of boundary amounts between first and last, not of all of them. */
+        public boolean isBoundaries() { return boundaries; }
+
+        public String toString() {
+            return "Currency " + currencyCode + (boundaries ? ", boundary amounts " : ", amounts ")
+                    + firstAmount + ".." + lastAmount;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+import ua.app.businessObject.AmountInWords.Sex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Language pack compiled into lookup tables used by <code>AmountInWords</code>.
+ *
+ * Packs are UTF-8 properties files <code>lang/&lt;language&gt;.properties</code> next to this class,
+ * keys are described in <code>ru.properties</code>. A pack is read and compiled the first time its
+ * language is asked for, so packs which are never used cost nothing. Russian is the default language,
+ * currencies not listed in a pack keep their own morphology.
+ */
+final class Language {
+    static final byte PLURAL_ONE = 0;
+    static final byte PLURAL_TWO = 1;
+    static final byte PLURAL_FIVE = 2;
+
+    /** Scale words are indexed by power of thousand, 1000^11 is the greatest one. */
+    static final int SCALES = 12;
+
+    private static final ConcurrentHashMap<String, Language> LOADED = new ConcurrentHashMap<String, Language>();
+
+    static final Language DEFAULT = of(new Locale("ru"));
+
+    /**
+     * Compiled pack of the locale language.
+     * @throws IllegalArgumentException when there is no pack for the language
+     */
+    static Language of(Locale locale) {
+        if (locale == null) throw new NullPointerException("Locale is null");
+        String language = locale.getLanguage();
+
+        Language compiled = LOADED.get(language);
+        if (compiled != null) return compiled;
+
+        synchronized (LOADED) {
+            compiled = LOADED.get(language);
+            if (compiled == null) {
+                compiled = new Language(language, load(language));
+                LOADED.put(language, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    private static Properties load(String language) {
+        InputStream in = Language.class.getResourceAsStream("lang/" + language + ".properties");
+        if (in == null) throw new IllegalArgumentException("Language " + language + " is not supported");
+
+        Properties pack = new Properties();
+        try {
+            try {
+                pack.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Language pack " + language + " could not be read", e);
+        }
+        return pack;
+    }
+
+
+    final String language;
+    private final boolean slavicPlural;
+
+    final String zero;
+    final byte[] zeroUtf8;
+
+    /** Words for every triad value 0..999 per Sex (indexed by ordinal), each word is followed by a space. */
+    final String[][] triadWords = new String[Sex.values().length][1000];
+
+    /** The same words as in {@link #triadWords} encoded in UTF-8. */
+    final byte[][][] triadWordsUtf8 = new byte[Sex.values().length][1000][];
+
+    /** Plural category (one / two / five) of the ending which follows triad value 0..999. */
+    private final byte[] triadPlurals = new byte[1000];
+
+    /** Scale words indexed by power of thousand, index 0 is not used. */
+    final Scale[] scales = new Scale[SCALES];
+
+    /** Translated currencies indexed by digit code, null when pack has no currencies. */
+    private final Currency[] currencies;
+
+    // vocabulary the tables are compiled from, kept for the parser
+    final String[] hundreds, tens, teens;
+    final String[][] units;
+    final String compound;
+
+    /** Parser of amounts in words, compiled on first use. */
+    private volatile WordsParser parser;
+
+    private Language(String language, Properties pack) {
+        this.language = language;
+        this.slavicPlural = !"english".equals(required(pack, "plural"));
+        this.zero = required(pack, "zero");
+        this.zeroUtf8 = (zero + " ").getBytes(StandardCharsets.UTF_8);
+
+        this.hundreds = list(pack, "hundreds", 9);
+        this.tens = list(pack, "tens", 8);
+        this.teens = list(pack, "teens", 10);
+        this.units = new String[][] { list(pack, "units.male", 9), list(pack, "units.female", 9) };
+        this.compound = pack.getProperty("compound", " ");
+        if (compound.length() != 1)
+            throw new IllegalStateException("Language pack " + language + " should have one character compound");
+
+        for (Sex sex : Sex.values())
+            for (int value = 0; value < 1000; value++) {
+                String words = triadToWords(value, hundreds, tens, teens, units[sex.ordinal()], compound);
+                triadWords[sex.ordinal()][value] = words;
+                triadWordsUtf8[sex.ordinal()][value] = words.getBytes(StandardCharsets.UTF_8);
+            }
+
+        for (int value = 0; value < 1000; value++)
+            triadPlurals[value] = slavicPlural ? slavicPlural(value) : value == 1 ? PLURAL_ONE : PLURAL_FIVE;
+
+        for (int power = 1; power < SCALES; power++) {
+            String[] forms = list(pack, "scale." + power, 4);
+            scales[power] = new Scale(forms[0], forms[1], forms[2], Sex.valueOf(forms[3]));
+        }
+
+        Currency[] translated = null;
+        for (String key : pack.stringPropertyNames()) {
+            if (!key.startsWith("currency.")) continue;
+            if (translated == null) translated = new Currency[1000];
+            Currency c = currency(Integer.parseInt(key.substring("currency.".length())), pack.getProperty(key));
+            translated[c.code] = c;
+        }
+        this.currencies = translated;
+    }
+
+    /**
+     * Plural category of the ending which follows the triad.
+     * @param whole triad is the whole number, English plural depends on it
+     */
+    byte plural(int value, boolean whole) {
+        return slavicPlural || whole ? triadPlurals[value] : PLURAL_FIVE;
+    }
+
+    /** Currency with morphology of this language, the currency itself when it is not translated. */
+    Currency translate(Currency c) {
+        if (currencies == null || c.code < 0 || c.code >= currencies.length) return c;
+
+        Currency translated = currencies[c.code];
+        if (translated == null) return c;
+        if (translated.fractionDigits == c.fractionDigits) return translated;
+
+        Currency copy = copy(translated, c.code, c.name);
+        copy.fractionDigits = c.fractionDigits;
+        return copy;
+    }
+
+    WordsParser parser() {
+        WordsParser compiled = parser;
+        if (compiled == null) parser = compiled = new WordsParser(this);
+        return compiled;
+    }
+
+    public String toString() {
+        return language;
+    }
+
+
+    /** Scale word forms, such as thousand or million. */
+    static final class Scale {
+        final String one;
+        final String two;
+        final String five;
+        final Sex sex;
+        // endings encoded in UTF-8, indexed by plural category
+        final byte[][] utf8;
+
+        Scale(String one, String two, String five, Sex sex) {
+            this.one = one;
+            this.two = two;
+            this.five = five;
+            this.sex = sex;
+            this.utf8 = utf8(one, two, five);
+        }
+    }
+
+    /** One, two and five forms followed by space and encoded in UTF-8. */
+    static byte[][] utf8(String one, String two, String five) {
+        return new byte[][] {
+                (one + " ").getBytes(StandardCharsets.UTF_8),
+                (two + " ").getBytes(StandardCharsets.UTF_8),
+                (five + " ").getBytes(StandardCharsets.UTF_8)
+        };
+    }
+
+    private static String triadToWords(int value, String[] hundreds, String[] tens, String[] teens, String[] units,
+                                       String compound) {
+        StringBuilder builder = new StringBuilder();
+
+        int hundred = value / 100;
+        int ten = (value % 100) / 10;
+        int unit = value % 10;
+
+        if (hundred > 0) builder.append(hundreds[hundred - 1]).append(' ');
+
+        if (ten == 1) builder.append(teens[unit]).append(' ');
+        else if (ten > 1 && unit > 0) builder.append(tens[ten - 2]).append(compound).append(units[unit - 1]).append(' ');
+        else if (ten > 1) builder.append(tens[ten - 2]).append(' ');
+        else if (unit > 0) builder.append(units[unit - 1]).append(' ');
+
+        return builder.toString();
+    }
+
+    private static byte slavicPlural(int value) {
+        int tens = (value % 100) / 10;
+        int units = value % 10;
+
+        if (tens == 1) return PLURAL_FIVE;
+
+        switch (units) {
+            default: return PLURAL_FIVE;
+            case 1:  return PLURAL_ONE;
+            case 2:
+            case 3:
+            case 4:  return PLURAL_TWO;
+        }
+    }
+
+    /** Currency from <code>one,two,five,SEX;one,two,five,SEX</code> of integer and fraction parts. */
+    private Currency currency(int code, String value) {
+        String[] parts = value.split(";");
+        if (parts.length != 2 || code < 0 || code >= 1000)
+            throw new IllegalStateException("Language pack " + language + " has malformed currency " + code);
+
+        String[] integer = split(parts[0], 4, "currency." + code);
+        String[] fraction = split(parts[1], 4, "currency." + code);
+        Currency c = new Currency(code, null);
+        c.oneInteger = integer[0];
+        c.twoIntegers = integer[1];
+        c.fiveIntegers = integer[2];
+        c.integerSex = Sex.valueOf(integer[3]);
+        c.oneFraction = fraction[0];
+        c.twoFractions = fraction[1];
+        c.fiveFractions = fraction[2];
+        c.fractionSex = Sex.valueOf(fraction[3]);
+        return c;
+    }
+
+    private static Currency copy(Currency c, int code, String name) {
+        Currency copy = new Currency(code, name);
+        copy.oneInteger = c.oneInteger;
+        copy.twoIntegers = c.twoIntegers;
+        copy.fiveIntegers = c.fiveIntegers;
+        copy.integerSex = c.integerSex;
+        copy.oneFraction = c.oneFraction;
+        copy.twoFractions = c.twoFractions;
+        copy.fiveFractions = c.fiveFractions;
+        copy.fractionSex = c.fractionSex;
+        return copy;
+    }
+
+    private String required(Properties pack, String key) {
+        String value = pack.getProperty(key);
+        if (value == null || value.trim().isEmpty())
+            throw new IllegalStateException("Language pack " + language + " has no " + key);
+        return value.trim();
+    }
+
+    private String[] list(Properties pack, String key, int size) {
+        return split(required(pack, key), size, key);
+    }
+
+    private String[] split(String value, int size, String key) {
+        String[] items = value.split(",");
+        if (items.length != size)
+            throw new IllegalStateException("Language pack " + language + " should have " + size + " items in " + key);
+        for (int i = 0; i < items.length; i++) items[i] = items[i].trim();
+        return items;
+    }
+}
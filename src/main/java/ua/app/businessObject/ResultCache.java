@@ -0,0 +1,191 @@
+package ua.app.businessObject;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of formatted amounts keyed by amount and registered currency.
+ * Could be enabled by {@link AmountInWords#setResultCache(ResultCache)}.
+ *
+ * Cache is set associative: key selects a set of {@link #WAYS} entries and the victim inside the set
+ * is chosen by {@link EvictionPolicy}. Keys are kept as primitive amount and currency reference inside
+ * immutable entries, so readers never box and never lock. Concurrent writers may overwrite each other
+ * which only costs a miss later. Entries are stamped with the version of their currency code, and clear
+ * moves every version on, so stale entries are never read. Since currencies are compared by reference,
+ * formatters with different currencies of the same code could share one cache.
+ */
+public final class ResultCache {
+    /** Policy used to choose which entry of the full set is evicted. */
+    public enum EvictionPolicy {
+        /** Least recently used entry of the set is evicted. */
+        LRU,
+        /** Second chance: entries used since the last sweep of the set hand are skipped once. */
+        CLOCK
+    }
+
+    /** Number of entries in one set. */
+    private static final int WAYS = 8;
+
+    /** Only currencies with codes 0..999 are cached. */
+    private static final int CODES = 1000;
+
+    private final EvictionPolicy policy;
+    private final Entry[] entries;
+    private final byte[] hands;
+    private final int setMask;
+
+    /** Current version of every currency code, entries with another version are stale. */
+    private final AtomicIntegerArray versions = new AtomicIntegerArray(CODES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // approximate LRU clock, lost updates only make recency less precise
+    private long tick;
+
+    /**
+     * Create cache.
+     * @param capacity maximum number of cached amounts, rounded down to power of two
+     * @param policy eviction policy
+     * @throws IllegalArgumentException when capacity is less than 8 or policy is null
+     */
+    public ResultCache(int capacity, EvictionPolicy policy) {
+        if (capacity < WAYS)
+            throw new IllegalArgumentException("Capacity should be at least " + WAYS);
+        if (policy == null)
+            throw new IllegalArgumentException("Eviction policy should not be null");
+
+        int sets = Integer.highestOneBit(capacity / WAYS);
+        this.policy = policy;
+        this.entries = new Entry[sets * WAYS];
+        this.hands = new byte[sets];
+        this.setMask = sets - 1;
+    }
+
+    public EvictionPolicy getPolicy() { return policy; }
+    public int getCapacity() { return entries.length; }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long evictions() { return evictions.sum(); }
+
+    /** Number of entries which are currently valid. */
+    public int size() {
+        int size = 0;
+        for (Entry e : entries)
+            if (e != null && isValid(e)) size++;
+        return size;
+    }
+
+    /** Drop all entries, statistics are kept. */
+    public void clear() {
+        for (int code = 0; code < CODES; code++) versions.incrementAndGet(code);
+    }
+
+    public String toString() {
+        return "ResultCache[" + policy + ", capacity=" + entries.length + ", hits=" + hits() + ", misses=" + misses()
+                + ", evictions=" + evictions() + "]";
+    }
+
+
+    static boolean accepts(int code) {
+        return code >= 0 && code < CODES;
+    }
+
+    /** Current version of the currency, should be taken before the currency itself is resolved. */
+    int version(int code) {
+        return versions.get(code);
+    }
+
+
+    String get(long amount, AmountInWords.Currency currency, int version) {
+        int base = set(amount, currency.code) * WAYS;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry e = entries[i];
+            if (e != null && e.amount == amount && e.currency == currency && e.version == version) {
+                touch(e);
+                hits.increment();
+                return e.words;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(long amount, AmountInWords.Currency currency, int version, String words) {
+        Entry entry = new Entry(amount, currency, version, words);
+        touch(entry);
+
+        int set = set(amount, currency.code);
+        int base = set * WAYS;
+        int victim = -1;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry e = entries[i];
+            if (e == null || !isValid(e) || (e.amount == amount && e.currency == currency)) {
+                victim = i;
+                break;
+            }
+        }
+
+        if (victim < 0) {
+            victim = policy == EvictionPolicy.LRU ? leastRecentlyUsed(base) : secondChance(set, base);
+            evictions.increment();
+        }
+        entries[victim] = entry;
+    }
+
+    private boolean isValid(Entry e) {
+        return e.version == versions.get(e.currency.code);
+    }
+
+    private void touch(Entry e) {
+        if (policy == EvictionPolicy.LRU) e.lastUsed = ++tick;
+        else e.referenced = true;
+    }
+
+    private int leastRecentlyUsed(int base) {
+        int victim = base;
+        for (int i = base + 1; i < base + WAYS; i++) {
+            Entry e = entries[i];
+            if (e == null) return i;
+            if (e.lastUsed < entries[victim].lastUsed) victim = i;
+        }
+        return victim;
+    }
+
+    private int secondChance(int set, int base) {
+        int hand = hands[set];
+        for (int step = 0; step < 2 * WAYS; step++, hand = (hand + 1) % WAYS) {
+            Entry e = entries[base + hand];
+            if (e == null || !e.referenced) break;
+            e.referenced = false;
+        }
+        hands[set] = (byte) ((hand + 1) % WAYS);
+        return base + hand;
+    }
+
+    private int set(long amount, int code) {
+        long hash = (amount ^ ((long) code << 54)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & setMask;
+    }
+
+
+    /** Immutable key and value, usage marks are updated without synchronization. */
+    private static final class Entry {
+        final long amount;
+        final AmountInWords.Currency currency;
+        final int version;
+        final String words;
+
+        long lastUsed;
+        boolean referenced;
+
+        Entry(long amount, AmountInWords.Currency currency, int version, String words) {
+            this.amount = amount;
+            this.currency = currency;
+            this.version = version;
+            this.words = words;
+        }
+    }
+}
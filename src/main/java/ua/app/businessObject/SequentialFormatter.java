@@ -0,0 +1,81 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+
+import java.io.IOException;
+import java.util.function.LongFunction;
+
+/**
+ * Formatter of amounts which come one after another close to each other, e.g. running balances,
+ * cheque number ranges or sorted ledgers, created by <code>AmountInWords.sequential(currency)</code>.
+ *
+ * Words of the last amount are kept together with its triads of thousands, millions, billions and trillions.
+ * The next amount reuses words of the greater triads which are the same and renders only the triads
+ * below them, so amounts differing in units and cents cost two triads rather than six. Output is exactly
+ * what <code>AmountInWords.format</code> gives for the same formatter, currency and locale.
+ *
+ * Formatter is not thread safe, every thread or stream of amounts needs its own one. Calls are not counted
+ * in format metrics and do not use the result cache, which would give nothing to amounts seen once.
+ */
+public final class SequentialFormatter implements LongFunction<String> {
+    private final Currency currency;
+    private final Language language;
+
+    /** Words of the last amount, its greater triads are followed by words of units and cents. */
+    private final StringBuilder words = new StringBuilder(AmountInWords.INITIAL_CAPACITY);
+
+    /** Triads of the last amount indexed by power of thousand, index 0 is not used. */
+    private final int[] triads = new int[AmountInWords.LONG_SCALES + 1];
+
+    /** Length of words up to the end of the triad of every power, the one above the greatest is always 0. */
+    private final int[] ends = new int[AmountInWords.LONG_SCALES + 2];
+
+    /** Greater triads of words belong to the last amount, false until the first amount and for other fractions. */
+    private boolean reusable;
+
+    SequentialFormatter(Currency currency, Language language) {
+        this.currency = language.translate(currency);
+        this.language = language;
+    }
+
+    /**
+     * Amount in words, the same as <code>AmountInWords.format(amount, currency)</code>.
+     * @throws UnsupportedOperationException when amount is out of the supported range
+     */
+    public String format(long amount) {
+        AmountInWords.checkAmount(amount);
+        if (currency.fractionDigits != AmountInWords.DEFAULT_FRACTION_DIGITS) {
+            // triads of other fractions do not fall on thousands of hundredths, nothing is reused
+            reusable = false;
+            return AmountInWords.render(amount, currency, language, words);
+        }
+
+        try {
+            int power = AmountInWords.LONG_SCALES;
+            if (reusable) while (power > 0 && triads[power] == AmountInWords.triad(amount, power)) power--;
+
+            words.setLength(ends[power + 1]);
+            for (; power > 0; power--) {
+                triads[power] = AmountInWords.triad(amount, power);
+                AmountInWords.appendScale(words, language, amount, power);
+                ends[power] = words.length();
+            }
+            reusable = true;
+
+            AmountInWords.appendUnits(words, language, amount, currency);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new IllegalStateException(e);
+        }
+        return words.toString();
+    }
+
+    /** The same as {@link #format(long)}, so the formatter could map sequential streams of amounts. */
+    public String apply(long amount) {
+        return format(amount);
+    }
+
+    public String toString() {
+        return "SequentialFormatter[currency=" + currency + ", language=" + language.language + "]";
+    }
+}
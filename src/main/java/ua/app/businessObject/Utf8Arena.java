@@ -0,0 +1,252 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Off-heap arena of a batch of amounts in words, filled by <code>AmountInWords.formatAll(amounts, currency, arena)</code>.
+ *
+ * Words are kept as UTF-8 bytes in direct buffer segments, each amount is followed by the separator,
+ * a new line by default. Only offsets and lengths of amounts stay on the heap, in primitive arrays,
+ * so a batch of any size adds no objects per amount. Amounts are accessed by index, the whole batch is
+ * written to a channel by a single gathering write in the original order.
+ *
+ * Arena is reused by the next batch, which overwrites the previous one, segments are allocated
+ * only when the batch needs more of them than any batch before. Arena is not thread safe,
+ * though a big batch is formatted by several threads of the fork/join pool into segments of their own.
+ */
+public final class Utf8Arena {
+    /** Default size of a segment, a part of the batch formatted by single task takes one or a few of them. */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 10;
+
+    /** Segment has to fit the longest amount in words, including amounts rendered for any fraction digits. */
+    private static final int MIN_SEGMENT_SIZE = 4 << 10;
+
+    /**
+     * Room left for the next amount before the segment is considered full, it fits the longest amount
+     * of predefined currencies, so segments rarely overflow.
+     */
+    private static final int RESERVE = 1 << 10;
+
+    private final int segmentSize;
+    private final byte[] separator;
+
+    /** Segments of the batch in the order of amounts, each one filled up to its position. */
+    private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<ByteBuffer>();
+
+    /** Parts of the batch formatted so far, joined in the order of amounts when the batch is done. */
+    private final List<Part> parts = new ArrayList<Part>();
+
+    /** Segment index in high and position in the segment in low 32 bits of every amount. */
+    private long[] positions = new long[0];
+    /** Length of every amount in bytes, the separator is not counted. */
+    private int[] lengths = new int[0];
+    /** Position of every segment in the written output. */
+    private long[] outputOffsets = new long[0];
+    private int size;
+    private long byteSize;
+
+    /** Arena with segments of the default size, amounts are separated by new lines. */
+    public Utf8Arena() {
+        this(DEFAULT_SEGMENT_SIZE, "\n");
+    }
+
+    /**
+     * @param segmentSize size of every direct buffer segment in bytes
+     * @param separator text written after every amount, could be empty
+     * @throws IllegalArgumentException when segment size is less than 4 KB
+     */
+    public Utf8Arena(int segmentSize, String separator) {
+        if (segmentSize < MIN_SEGMENT_SIZE)
+            throw new IllegalArgumentException("Segment size " + segmentSize + " is less than " + MIN_SEGMENT_SIZE);
+        this.segmentSize = segmentSize;
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Number of amounts in the arena. */
+    public int size() { return size; }
+
+    /** Number of bytes written by {@link #writeTo(GatheringByteChannel)}, separators included. */
+    public long byteSize() { return byteSize; }
+
+    /** Number of direct buffer bytes the arena holds, used or not. */
+    public long capacity() { return (long) (segments.size() + free.size()) * segmentSize; }
+
+    /** Position of the amount in the written output. */
+    public long offset(int index) {
+        checkIndex(index);
+        return outputOffsets[(int) (positions[index] >>> 32)] + (int) positions[index];
+    }
+
+    /** Length of the amount in bytes, the separator is not counted. */
+    public int length(int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    /** Read-only view of the UTF-8 bytes of the amount, positioned at its first byte. */
+    public ByteBuffer get(int index) {
+        checkIndex(index);
+        int position = (int) positions[index];
+        ByteBuffer view = segments.get((int) (positions[index] >>> 32)).asReadOnlyBuffer();
+        view.limit(position + lengths[index]).position(position);
+        return view.slice();
+    }
+
+    /** Amount in words decoded from the arena, mainly for tests and logs. */
+    public String getString(int index) {
+        ByteBuffer view = get(index);
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write all amounts with their separators to the channel, segments are given to the channel at once.
+     * Channel must be blocking, as streams of {@link java.nio.channels.Channels} require.
+     * @return number of bytes written
+     * @throws IllegalBlockingModeException when the channel is selectable and in non-blocking mode
+     * @throws IOException when the channel writes nothing
+     */
+    public long writeTo(GatheringByteChannel channel) throws IOException {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking())
+            throw new IllegalBlockingModeException();
+
+        ByteBuffer[] views = new ByteBuffer[segments.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = segments.get(i).duplicate();
+            views[i].flip();
+        }
+
+        // channel may write less than asked, the rest is written by next calls
+        long written = 0;
+        int first = 0;
+        while (written < byteSize) {
+            long count = channel.write(views, first, views.length - first);
+            if (count <= 0) throw new IOException("Channel wrote " + written + " of " + byteSize + " bytes");
+            written += count;
+            while (first < views.length && !views[first].hasRemaining()) first++;
+        }
+        return written;
+    }
+
+    /** Forget the batch, its segments are reused by the next one. */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            segment.clear();
+            free.push(segment);
+        }
+        segments.clear();
+        parts.clear();
+        size = 0;
+        byteSize = 0;
+    }
+
+    public String toString() {
+        return "Utf8Arena[size=" + size + ", bytes=" + byteSize + ", capacity=" + capacity() + "]";
+    }
+
+
+    /** Get ready for the batch of the size, the previous batch is cleared. */
+    void start(int count) {
+        clear();
+        if (positions.length < count) {
+            positions = new long[count];
+            lengths = new int[count];
+        }
+    }
+
+    /**
+     * Format amounts from..to into segments taken by this part only, called concurrently by tasks
+     * of {@link BatchFormatter}. Amounts and currencies are expected to be validated by the caller.
+     */
+    void formatRange(AmountFormatter formatter, long[] amounts, Currency currency, int[] currencyCodes,
+                     int from, int to) {
+        Part part = new Part(from);
+        ByteBuffer segment = part.next(take());
+        for (int i = from; i < to; i++) {
+            Currency c = currency != null ? currency : formatter.byCode(currencyCodes[i]);
+            if (segment.remaining() < RESERVE) segment = part.next(take());
+            int start = segment.position();
+            int length;
+            try {
+                length = AmountInWords.putAmount(segment, amounts[i], c);
+                segment.put(separator);
+            } catch (BufferOverflowException e) {
+                // amounts never span segments, the one longer than the reserve is put into the next segment
+                segment.position(start);
+                segment = part.next(take());
+                start = 0;
+                length = AmountInWords.putAmount(segment, amounts[i], c);
+                segment.put(separator);
+            }
+            positions[i] = (long) (part.segments.size() - 1) << 32 | start;
+            lengths[i] = length;
+        }
+        synchronized (parts) {
+            parts.add(part);
+        }
+    }
+
+    /** Join parts in the order of amounts, segment indices local to parts become indices in the arena. */
+    void finish(int count) {
+        parts.sort(Comparator.comparingInt(part -> part.from));
+
+        for (int p = 0; p < parts.size(); p++) {
+            Part part = parts.get(p);
+            long base = (long) segments.size() << 32;
+            int to = p + 1 < parts.size() ? parts.get(p + 1).from : count;
+            if (base != 0) for (int i = part.from; i < to; i++) positions[i] += base;
+
+            for (ByteBuffer segment : part.segments) {
+                if (outputOffsets.length == segments.size())
+                    outputOffsets = Arrays.copyOf(outputOffsets, Math.max(16, segments.size() * 2));
+                outputOffsets[segments.size()] = byteSize;
+                segments.add(segment);
+                byteSize += segment.position();
+            }
+        }
+        parts.clear();
+        size = count;
+    }
+
+    private ByteBuffer take() {
+        synchronized (free) {
+            ByteBuffer segment = free.poll();
+            return segment != null ? segment : ByteBuffer.allocateDirect(segmentSize);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size + " amounts");
+    }
+
+    /** Part of the batch formatted by one task, with the segments it filled. */
+    private static final class Part {
+        final int from;
+        final List<ByteBuffer> segments = new ArrayList<ByteBuffer>(2);
+
+        Part(int from) {
+            this.from = from;
+        }
+
+        ByteBuffer next(ByteBuffer segment) {
+            segments.add(segment);
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package ua.app.businessObject;
+
+import ua.app.businessObject.AmountInWords.Currency;
+import ua.app.businessObject.AmountInWords.Sex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parser of amounts written in words, the inverse of <code>AmountInWords.format</code>.
+ *
+ * Numerals and scale words of the language are compiled into a DFA (trie of words with transitions
+ * kept in one int array), currency endings are compared in place since they are only six per currency.
+ * Text is read in a single pass, nothing is allocated, and the first word which could not follow
+ * the words read so far stops parsing. Only text in the form produced by <code>format</code> is accepted:
+ * endings and genders must agree with numerals, zero triads are omitted, case and runs of spaces are ignored.
+ */
+final class WordsParser {
+    // kinds of words, numerals must follow each other in this order within a triad
+    private static final int ZERO = 1;
+    private static final int HUNDRED = 2;
+    private static final int TEN = 3;
+    private static final int UNIT = 4;
+    private static final int TEEN = 5;
+    private static final int SCALE = 6;
+
+    // word info is packed into int: kind, value (power for scales), genders and plural forms as bit sets
+    private static final int KIND_MASK = 0x7;
+    private static final int VALUE_SHIFT = 3;
+    private static final int VALUE_MASK = 0x3FF;
+    private static final int SEX_SHIFT = 13;
+    private static final int FORM_SHIFT = 15;
+    // kind and value identify the word, the rest may be merged
+    private static final int WORD_MASK = KIND_MASK | VALUE_MASK << VALUE_SHIFT;
+
+    private static final int ANY_SEX = (1 << Sex.values().length) - 1;
+
+    /** Scale words of greater powers do not fit long amounts. */
+    private static final int MAX_POWER = 5;
+
+    private static final long[] THOUSANDS = { 1L, 1000L, 1000000L, 1000000000L, 1000000000000L, 1000000000000000L };
+
+    private final Language language;
+    private final char compound;
+
+    /**
+     * Symbol index of every char of the vocabulary plus one, 0 for chars not in the vocabulary.
+     * Upper case chars have the same symbols as lower case ones, so text is never converted.
+     */
+    private final int[] symbols;
+    private final int alphabet;
+
+    /** Transitions, <code>next[state * alphabet + symbol]</code>, 0 is both the root and no transition. */
+    private final int[] next;
+    /** Info of the word which ends in the state, 0 when no word ends there. */
+    private final int[] words;
+
+    WordsParser(Language language) {
+        this.language = language;
+        this.compound = language.compound.charAt(0);
+
+        List<String> vocabulary = new ArrayList<String>();
+        List<Integer> infos = new ArrayList<Integer>();
+        add(vocabulary, infos, language.zero, info(ZERO, 0, ANY_SEX, 0));
+        for (int i = 0; i < 9; i++) {
+            add(vocabulary, infos, language.hundreds[i], info(HUNDRED, (i + 1) * 100, ANY_SEX, 0));
+            for (Sex sex : Sex.values())
+                add(vocabulary, infos, language.units[sex.ordinal()][i], info(UNIT, i + 1, 1 << sex.ordinal(), 0));
+        }
+        for (int i = 0; i < 8; i++) add(vocabulary, infos, language.tens[i], info(TEN, (i + 2) * 10, ANY_SEX, 0));
+        for (int i = 0; i < 10; i++) add(vocabulary, infos, language.teens[i], info(TEEN, 10 + i, ANY_SEX, 0));
+        for (int power = 1; power < Language.SCALES; power++) {
+            Language.Scale scale = language.scales[power];
+            add(vocabulary, infos, scale.one, info(SCALE, power, ANY_SEX, 1 << Language.PLURAL_ONE));
+            add(vocabulary, infos, scale.two, info(SCALE, power, ANY_SEX, 1 << Language.PLURAL_TWO));
+            add(vocabulary, infos, scale.five, info(SCALE, power, ANY_SEX, 1 << Language.PLURAL_FIVE));
+        }
+
+        // alphabet is numbered first, so every state has a row of the same width
+        int maxChar = 0, length = 1;
+        for (String word : vocabulary) {
+            length += word.length();
+            for (int i = 0; i < word.length(); i++)
+                maxChar = Math.max(maxChar, Math.max(lower(word.charAt(i)), upper(word.charAt(i))));
+        }
+        int[] symbols = new int[maxChar + 1];
+        int alphabet = 0;
+        for (String word : vocabulary)
+            for (int i = 0; i < word.length(); i++) {
+                char ch = lower(word.charAt(i));
+                if (symbols[ch] == 0) symbols[ch] = symbols[upper(ch)] = ++alphabet;
+            }
+
+        int[] next = new int[length * alphabet];
+        int[] words = new int[length];
+        int states = 1;
+        for (int w = 0; w < vocabulary.size(); w++) {
+            String word = vocabulary.get(w);
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int index = state * alphabet + symbols[lower(word.charAt(i))] - 1;
+                if (next[index] == 0) next[index] = states++;
+                state = next[index];
+            }
+
+            int info = infos.get(w);
+            if (words[state] != 0 && (words[state] & WORD_MASK) != (info & WORD_MASK))
+                throw new IllegalStateException("Language pack " + language + " has ambiguous word " + word);
+            // the same word may be a few forms or genders of one numeral
+            words[state] |= info;
+        }
+
+        this.symbols = symbols;
+        this.alphabet = alphabet;
+        this.next = Arrays.copyOf(next, states * alphabet);
+        this.words = Arrays.copyOf(words, states);
+    }
+
+    /**
+     * Parse amount in words.
+     * @return amount in units of 10^-fractionDigits of the currency, or <code>-1 - position</code>
+     *         of the first word which could not be parsed
+     */
+    long parse(CharSequence text, Currency c) {
+        c = language.translate(c);
+        int length = text.length();
+        int pos = skipSpaces(text, 0);
+
+        int start = pos, fractionStart = pos;
+        long integer = 0;
+        long fraction = 0;
+        int parts = c.fractionDigits > 0 ? 2 : 1;
+        for (int part = 0; part < parts; part++) {
+            boolean isInteger = part == 0;
+            if (!isInteger) fractionStart = pos;
+            Sex sex = isInteger ? c.integerSex : c.fractionSex;
+            // scales are allowed while they keep the fraction below 10^fractionDigits
+            int maxPower = isInteger ? MAX_POWER - 1 : (c.fractionDigits - 1) / 3;
+
+            long number = 0;
+            int lastPower = maxPower + 1;
+            int triad = 0, lastKind = 0, sexes = ANY_SEX;
+            boolean zero = false, joined = false;
+
+            while (true) {
+                if (pos >= length) return -1 - pos;
+
+                if (!joined && (lastKind != 0 || number != 0)) {
+                    // ending terminates the part, its form depends on the last triad
+                    int form = triad == 0 ? Language.PLURAL_FIVE : language.plural(triad, number == 0);
+                    String ending = ending(c, isInteger, form);
+                    int end = match(text, pos, ending);
+                    if (end >= 0) {
+                        if ((sexes & 1 << sex.ordinal()) == 0) return -1 - pos;
+                        number += triad;
+                        pos = skipSpaces(text, end);
+                        break;
+                    }
+                }
+
+                int end = pos;
+                int info = 0;
+                for (int state = 0, i = pos; i < length; ) {
+                    int symbol = symbol(text.charAt(i));
+                    if (symbol < 0) break;
+                    state = next[state * alphabet + symbol];
+                    if (state == 0) break;
+                    i++;
+                    if (words[state] != 0 && isBoundary(text, i)) {
+                        end = i;
+                        info = words[state];
+                    }
+                }
+                if (info == 0) return -1 - pos;
+
+                int kind = info & KIND_MASK;
+                int value = info >>> VALUE_SHIFT & VALUE_MASK;
+                if (joined && kind != UNIT) return -1 - pos;
+
+                switch (kind) {
+                    case ZERO:
+                        if (lastKind != 0 || number != 0) return -1 - pos;
+                        zero = true;
+                        lastKind = SCALE;
+                        break;
+                    case HUNDRED:
+                    case TEN:
+                    case TEEN:
+                        if (lastKind >= kind || lastKind >= TEN) return -1 - pos;
+                        triad += value;
+                        lastKind = kind == TEEN ? UNIT : kind;
+                        break;
+                    case UNIT:
+                        if (lastKind >= UNIT || lastKind == TEN && compound != ' ' && !joined) return -1 - pos;
+                        triad += value;
+                        sexes = info >>> SEX_SHIFT & ANY_SEX;
+                        lastKind = UNIT;
+                        break;
+                    default:
+                        if (triad == 0 || zero || value >= lastPower) return -1 - pos;
+                        Language.Scale scale = language.scales[value];
+                        int form = language.plural(triad, false);
+                        if ((info >>> FORM_SHIFT & 1 << form) == 0 || (sexes & 1 << scale.sex.ordinal()) == 0)
+                            return -1 - pos;
+                        number += triad * THOUSANDS[value];
+                        lastPower = value;
+                        triad = 0;
+                        lastKind = 0;
+                        sexes = ANY_SEX;
+                }
+
+                joined = kind == TEN && compound != ' ' && end < length && text.charAt(end) == compound;
+                pos = joined ? end + 1 : skipSpaces(text, end);
+            }
+
+            if (isInteger) integer = number;
+            else fraction = number;
+        }
+        if (pos < length) return -1 - pos;
+
+        long unit = AmountInWords.POWERS_OF_TEN[c.fractionDigits];
+        if (fraction >= unit) return -1 - fractionStart;
+        if (integer > (AmountInWords.MAX_AMOUNT - fraction) / unit) return -1 - start;
+        return integer * unit + fraction;
+    }
+
+
+    private static String ending(Currency c, boolean integer, int form) {
+        switch (form) {
+            case Language.PLURAL_ONE: return integer ? c.oneInteger : c.oneFraction;
+            case Language.PLURAL_TWO: return integer ? c.twoIntegers : c.twoFractions;
+            default:                  return integer ? c.fiveIntegers : c.fiveFractions;
+        }
+    }
+
+    /** End of the word when text at the position is the word followed by a boundary, -1 otherwise. */
+    private int match(CharSequence text, int pos, String word) {
+        int end = pos + word.length();
+        if (end > text.length()) return -1;
+        for (int i = 0; i < word.length(); i++) {
+            char ch = text.charAt(pos + i), expected = word.charAt(i);
+            if (ch != expected && !equalsIgnoreCase(ch, expected)) return -1;
+        }
+        return isBoundary(text, end) ? end : -1;
+    }
+
+    private boolean isBoundary(CharSequence text, int pos) {
+        if (pos == text.length()) return true;
+        char ch = text.charAt(pos);
+        return isSpace(ch) || ch == compound;
+    }
+
+    private static int skipSpaces(CharSequence text, int pos) {
+        while (pos < text.length() && isSpace(text.charAt(pos))) pos++;
+        return pos;
+    }
+
+    private static boolean isSpace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n' || ch == '\u00A0';
+    }
+
+    private boolean equalsIgnoreCase(char ch, char expected) {
+        // letters of the vocabulary are compared by symbols, which are the same for both cases
+        int symbol = symbol(ch);
+        if (symbol >= 0) return symbol == symbol(expected);
+        return symbol(expected) < 0 && lower(ch) == lower(expected);
+    }
+
+    private static char lower(char ch) {
+        return Character.toLowerCase(ch);
+    }
+
+    private static char upper(char ch) {
+        return Character.toUpperCase(ch);
+    }
+
+    /** Symbol of the char, -1 when the char is not in the vocabulary. */
+    private int symbol(char ch) {
+        return ch < symbols.length ? symbols[ch] - 1 : -1;
+    }
+
+
+    private static void add(List<String> vocabulary, List<Integer> infos, String word, int info) {
+        vocabulary.add(word);
+        infos.add(info);
+    }
+
+    private static int info(int kind, int value, int sexes, int forms) {
+        return kind | value << VALUE_SHIFT | sexes << SEX_SHIFT | forms << FORM_SHIFT;
+    }
+}
@@ -0,0 +1,480 @@
+package ua.app.main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.AmountInWords.Currency;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP service which formats amounts in words, so services could share one warmed up engine.
+ *
+ * <ul>
+ *     <li><code>GET /format?amount=&lt;hundredths&gt;[&amp;currency=&lt;code|name&gt;]</code> returns words as text;</li>
+ *     <li><code>POST /format</code> with lines <code>amount[;code]</code> returns one line of words per amount;</li>
+ *     <li><code>POST /format</code> with JSON array of amounts or of <code>{"amount": .., "currency": ..}</code>
+ *     objects returns JSON array of words.</li>
+ * </ul>
+ * Requests are read by the NIO dispatcher of the JDK HTTP server and handled on virtual threads when
+ * the runtime has them (Java 21), on pooled threads otherwise. Amounts of requests which arrive within
+ * the batching window are merged and formatted by single {@link AmountInWords#formatAll(long[], int[])} call,
+ * the window is not waited for when no other request is being handled.
+ * Malformed requests are answered with 400 and the reason, bodies longer than a batch of the greatest size
+ * could take are answered with 413.
+ *
+ * Responses are small, so without TCP_NODELAY every one waits for delayed ACK of its headers. The JDK server
+ * reads it from <code>sun.net.httpserver.nodelay</code> system property once, which <code>Main serve</code> sets;
+ * applications embedding the server should start JVM with <code>-Dsun.net.httpserver.nodelay=true</code>.
+ */
+public final class FormatServer {
+    /** Merged batch is formatted as soon as it has this many amounts, without waiting for the window end. */
+    private static final int MAX_BATCH = 1 << 16;
+
+    /** Longest request body, a batch of the greatest size with room for JSON object of every amount. */
+    static final int MAX_BODY = MAX_BATCH * 64;
+
+    private static final String TEXT = "text/plain; charset=UTF-8";
+    private static final String JSON = "application/json; charset=UTF-8";
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final Thread batcher;
+    private final Currency currency;
+    private final long windowNanos;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<Request>();
+    private volatile boolean running;
+    /** Requests which are waiting for their batch, batcher never waits for more requests than this. */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder amounts = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Create server bound to loopback interface, it is not started.
+     * @param port port to listen on, 0 for any free port
+     * @param currency currency of amounts which have no currency
+     * @param windowMicros time requests are collected into one batch, 0 formats every request on its own
+     * @throws IOException when port could not be bound
+     */
+    public FormatServer(int port, Currency currency, long windowMicros) throws IOException {
+        if (currency == null) throw new IllegalArgumentException("Currency should not be null");
+        if (windowMicros < 0) throw new IllegalArgumentException("Batching window should not be negative");
+
+        this.currency = currency;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.handlers = handlerExecutor();
+        this.batcher = new Thread(this::batch, "format-batcher");
+        this.batcher.setDaemon(true);
+
+        server.createContext("/format", this::handle);
+        server.setExecutor(handlers);
+    }
+
+    public void start() {
+        running = true;
+        batcher.start();
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, requests being handled are given a second to complete.
+     * Requests waiting for their batch are failed rather than formatted.
+     */
+    public void stop() {
+        running = false;
+        server.stop(1);
+        batcher.interrupt();
+        handlers.shutdown();
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+
+    public long requests() { return requests.sum(); }
+    public long amounts() { return amounts.sum(); }
+    public long batches() { return batches.sum(); }
+
+    public String toString() {
+        return "FormatServer[port=" + getPort() + ", requests=" + requests() + ", amounts=" + amounts()
+                + ", batches=" + batches() + "]";
+    }
+
+
+    /** Virtual thread per request when the runtime supports it, cached pool of daemon threads otherwise. */
+    private static ExecutorService handlerExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "format-handler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            String method = exchange.getRequestMethod();
+            if ("GET".equals(method)) handleSingle(exchange);
+            else if ("POST".equals(method)) handleBatch(exchange);
+            else respond(exchange, 405, TEXT, "Method " + method + " is not allowed");
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            respond(exchange, 400, TEXT, e.getMessage());
+        } catch (RuntimeException e) {
+            respond(exchange, 500, TEXT, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        String amount = null, code = null;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null)
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator < 0) continue;
+                String name = parameter.substring(0, separator);
+                String value = URLDecoder.decode(parameter.substring(separator + 1), "UTF-8");
+                if ("amount".equals(name)) amount = value;
+                else if ("currency".equals(name)) code = value;
+            }
+        if (amount == null) throw new IllegalArgumentException("Parameter amount is missing");
+
+        String[] words = format(new long[] { parseAmount(amount) }, new int[] { code(code) });
+        respond(exchange, 200, TEXT, words[0]);
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        // declared length is checked before reading, chunked body is checked while it is read
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        boolean tooLong = length != null && Long.parseLong(length.trim()) > MAX_BODY;
+        byte[] bytes = tooLong ? null : read(exchange.getRequestBody(), MAX_BODY);
+        if (bytes == null) {
+            respond(exchange, 413, TEXT, "Request body is longer than " + MAX_BODY + " bytes");
+            return;
+        }
+        String body = new String(bytes, StandardCharsets.UTF_8);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        boolean json = contentType != null && contentType.startsWith("application/json") || body.trim().startsWith("[");
+
+        List<long[]> items = json ? new JsonArray(body).items() : lines(body);
+        long[] amounts = new long[items.size()];
+        int[] codes = new int[items.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = items.get(i)[0];
+            codes[i] = (int) items.get(i)[1];
+        }
+
+        String[] words = format(amounts, codes);
+        StringBuilder response = new StringBuilder(words.length * 64);
+        if (json) {
+            response.append('[');
+            for (int i = 0; i < words.length; i++) {
+                if (i > 0) response.append(',');
+                appendJsonString(response, words[i]);
+            }
+            response.append(']');
+        } else for (String line : words) response.append(line).append('\n');
+        respond(exchange, 200, json ? JSON : TEXT, response.toString());
+    }
+
+    /** Amount and currency code pairs of <code>amount[;code]</code> lines, blank lines are skipped. */
+    private List<long[]> lines(String body) {
+        List<long[]> items = new ArrayList<long[]>();
+        for (String line : body.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            int separator = line.indexOf(';');
+            if (separator < 0) items.add(new long[] { parseAmount(line), currency.getCode() });
+            else items.add(new long[] { parseAmount(line.substring(0, separator)), code(line.substring(separator + 1)) });
+        }
+        return items;
+    }
+
+    private int code(String codeOrName) {
+        if (codeOrName == null || codeOrName.trim().isEmpty()) return currency.getCode();
+        return Main.currency(codeOrName.trim()).getCode();
+    }
+
+    private static long parseAmount(String amount) {
+        try {
+            return Long.parseLong(amount.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Amount " + amount.trim() + " is not a number");
+        }
+    }
+
+
+    /** Format amounts of one request together with amounts of requests which arrive within the window. */
+    private String[] format(long[] amounts, int[] codes) {
+        this.amounts.add(amounts.length);
+
+        if (windowNanos == 0 || amounts.length >= MAX_BATCH) {
+            batches.increment();
+            return AmountInWords.formatAll(amounts, codes);
+        }
+
+        if (!running) throw stopped();
+        Request request = new Request(amounts, codes);
+        waiting.incrementAndGet();
+        queue.add(request);
+        // batcher fails requests left in the queue when it exits, the ones queued after that are failed here
+        if (!running) failQueued(stopped());
+        try {
+            return request.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while formatting");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Loop of the batcher thread: collect requests until the window ends and format them at once.
+     * Batch is closed early when every waiting request is in it, so lone requests are not delayed.
+     * Whatever stops the loop, requests it has taken or left in the queue are failed, so none of them
+     * waits forever, and later requests are not queued any more.
+     */
+    private void batch() {
+        List<Request> pending = new ArrayList<Request>();
+        Throwable failure = stopped();
+        try {
+            while (running) {
+                Request first = queue.take();
+                pending.add(first);
+                int size = first.amounts.length;
+                long deadline = System.nanoTime() + windowNanos;
+                while (size < MAX_BATCH && pending.size() < waiting.get()) {
+                    Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    pending.add(next);
+                    size += next.amounts.length;
+                }
+                try {
+                    formatPending(pending, size);
+                } catch (RuntimeException e) {
+                    // completed requests keep their words, the rest of the batch gets the failure
+                    fail(pending, e);
+                }
+                pending.clear();
+            }
+        } catch (InterruptedException e) {
+            // interrupted by stop
+        } catch (Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            running = false;
+            fail(pending, failure);
+            failQueued(failure);
+        }
+    }
+
+    private static void fail(List<Request> requests, Throwable failure) {
+        for (Request request : requests) request.result.completeExceptionally(failure);
+        requests.clear();
+    }
+
+    private void failQueued(Throwable failure) {
+        for (Request request; (request = queue.poll()) != null; ) request.result.completeExceptionally(failure);
+    }
+
+    private static IllegalStateException stopped() {
+        return new IllegalStateException("Format server is not running");
+    }
+
+    private void formatPending(List<Request> pending, int size) {
+        long[] amounts = new long[size];
+        int[] codes = new int[size];
+        int offset = 0;
+        for (Request request : pending) {
+            System.arraycopy(request.amounts, 0, amounts, offset, request.amounts.length);
+            System.arraycopy(request.codes, 0, codes, offset, request.codes.length);
+            offset += request.amounts.length;
+        }
+
+        String[] words;
+        try {
+            batches.increment();
+            words = AmountInWords.formatAll(amounts, codes);
+        } catch (RuntimeException e) {
+            // bad amount or currency of one request fails only that request
+            for (Request request : pending) {
+                try {
+                    request.result.complete(AmountInWords.formatAll(request.amounts, request.codes));
+                } catch (RuntimeException failed) {
+                    request.result.completeExceptionally(failed);
+                }
+            }
+            return;
+        }
+
+        offset = 0;
+        for (Request request : pending) {
+            String[] result = new String[request.amounts.length];
+            System.arraycopy(words, offset, result, 0, result.length);
+            offset += result.length;
+            request.result.complete(result);
+        }
+    }
+
+
+    /** Whole stream, null when it is longer than the limit. */
+    private static byte[] read(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            if (out.size() + read > limit) return null;
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') out.append('\\').append(ch);
+            else if (ch < 0x20) out.append(String.format("\\u%04x", (int) ch));
+            else out.append(ch);
+        }
+        out.append('"');
+    }
+
+
+    /** Amounts of one request waiting for the batch they are merged into. */
+    private static final class Request {
+        final long[] amounts;
+        final int[] codes;
+        final CompletableFuture<String[]> result = new CompletableFuture<String[]>();
+
+        Request(long[] amounts, int[] codes) {
+            this.amounts = amounts;
+            this.codes = codes;
+        }
+    }
+
+    /**
+     * Reader of the only JSON this service accepts: array of amounts or of objects
+     * with <code>amount</code> number and optional <code>currency</code> code or name.
+     */
+    private final class JsonArray {
+        private final String text;
+        private int pos;
+
+        JsonArray(String text) {
+            this.text = text;
+        }
+
+        /** Amount and currency code pairs. */
+        List<long[]> items() {
+            List<long[]> items = new ArrayList<long[]>();
+            expect('[');
+            if (peek() == ']') pos++;
+            else
+                do {
+                    items.add(peek() == '{' ? object() : new long[] { number(), currency.getCode() });
+                } while (next(',', ']') == ',');
+            if (peek() != 0) throw malformed();
+            return items;
+        }
+
+        private long[] object() {
+            expect('{');
+            String amount = null, code = null;
+            if (peek() == '}') pos++;
+            else
+                do {
+                    String name = string();
+                    expect(':');
+                    String value = peek() == '"' ? string() : String.valueOf(number());
+                    if ("amount".equals(name)) amount = value;
+                    else if ("currency".equals(name)) code = value;
+                } while (next(',', '}') == ',');
+            if (amount == null) throw new IllegalArgumentException("Amount is missing at position " + pos);
+            return new long[] { parseAmount(amount), code(code) };
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length() && text.charAt(pos) != '"') {
+                char ch = text.charAt(pos++);
+                if (ch == '\\' && pos < text.length()) ch = text.charAt(pos++);
+                value.append(ch);
+            }
+            expect('"');
+            return value.toString();
+        }
+
+        private long number() {
+            peek();
+            int start = pos;
+            if (pos < text.length() && text.charAt(pos) == '-') pos++;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) pos++;
+            if (start == pos) throw malformed();
+            return parseAmount(text.substring(start, pos));
+        }
+
+        private char next(char one, char other) {
+            char ch = peek();
+            if (ch != one && ch != other) throw malformed();
+            pos++;
+            return ch;
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) throw malformed();
+            pos++;
+        }
+
+        /** Next char which is not a space, 0 at the end of text. */
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("JSON is malformed at position " + pos);
+        }
+    }
+}
@@ -1,29 +1,347 @@
-//package ua.app.main;
-//
-//import com.sun.org.apache.bcel.internal.generic.NEW;
-//import ua.app.businessObject.AmountInWords;
-//
-///**
-// * Created by Dmytro_Rybin on 10/28/2016.
-// */
-//public class Main {
-//    public static void main(String[] args) {
-//        AmountInWords.Currency currency = new AmountInWords.Currency(840, "USD");
-//        System.out.println(currency.getCode());
-//       // currency;
-//        System.out.println(AmountInWords.Currency.byCode("840"));
-//
-//
-//
-//    //    System.out.println(AmountInWords.getDefaultCurrency();
-//        AmountInWords.setDefaultCurrency(AmountInWords.EUR);
-//        System.out.println(AmountInWords.format(646546486443L));
-//
-////        AmountInWords.Currency NewCurr = new AmountInWords.Currency(444, "NEW");
-////       // NewCurr.
-////
-////        AmountInWords.addCurrency(new AmountInWords.Currency(444, "NEW"));
-////        AmountInWords.getCurrencies();
-//
-//    }
-//}
+package ua.app.main;
+
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.AmountInWords.Currency;
+import ua.app.businessObject.GoldenCorpus;
+import ua.app.businessObject.Utf8Arena;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Command line batch tool which formats files of amounts in words.
+ *
+ * Input is either text with one amount (in hundredths) per line, optionally followed by
+ * <code>;</code> and digit currency code, or binary file of records made of little-endian
+ * long amount followed by little-endian int currency code. Input is mapped into memory window
+ * by window, every chunk is formatted in parallel by {@link AmountInWords#formatAll(long[], int[], Utf8Arena)}
+ * into off-heap arena and written to the output file in the original order, one amount in words per line.
+ * Memory used does not depend on file size but on chunk size only.
+ *
+ * <code>serve</code> command starts {@link FormatServer} on localhost instead. <code>golden</code> command writes
+ * {@link GoldenCorpus} of amounts in words or verifies formatting against it before a rewrite ships.
+ *
+ * Created by Dmytro_Rybin on 10/28/2016.
+ */
+public class Main {
+    private static final String USAGE =
+            "Usage: java ua.app.main.Main format <input> <output> [--binary] [--currency <code|name>] [--chunk <records>]\n"
+            + "       java ua.app.main.Main serve [--port <port>] [--currency <code|name>] [--window <micros>]\n"
+            + "       java ua.app.main.Main golden write <corpus> [--from <amount>] [--to <amount>]\n"
+            + "       java ua.app.main.Main golden verify <corpus> [--sample <n>]";
+
+    private static final int DEFAULT_PORT = 8980;
+    private static final long DEFAULT_GOLDEN_TO = 10000000;
+    private static final long DEFAULT_WINDOW_MICROS = 200;
+
+    /** Size of input window mapped at once. */
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    /** Size of binary input record: long amount and int currency code. */
+    private static final int RECORD_SIZE = 12;
+
+    private static final int DEFAULT_CHUNK = 1 << 16;
+
+    /** Greatest amount in hundredths AmountInWords formats, checked on reading to tell the line or record. */
+    private static final long MAX_AMOUNT = 99999999999999999L;
+
+    public static void main(String[] args) {
+        if (args.length > 0 && "serve".equals(args[0])) {
+            serve(args);
+            return;
+        }
+        if (args.length > 2 && "golden".equals(args[0])) {
+            golden(args);
+            return;
+        }
+        if (args.length < 3 || !"format".equals(args[0])) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            boolean binary = false;
+            Currency currency = AmountInWords.getDefaultCurrency();
+            int chunk = DEFAULT_CHUNK;
+            for (int i = 3; i < args.length; i++) {
+                if ("--binary".equals(args[i])) binary = true;
+                else if ("--currency".equals(args[i]) && i + 1 < args.length) currency = currency(args[++i]);
+                else if ("--chunk".equals(args[i]) && i + 1 < args.length) chunk = Integer.parseInt(args[++i]);
+                else {
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+
+            new Main(Paths.get(args[1]), Paths.get(args[2]), binary, currency, chunk, WINDOW_SIZE, System.err).run();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Formatting failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** Run {@link FormatServer} on localhost until the process is stopped. */
+    private static void serve(String[] args) {
+        try {
+            int port = DEFAULT_PORT;
+            Currency currency = AmountInWords.getDefaultCurrency();
+            long window = DEFAULT_WINDOW_MICROS;
+            for (int i = 1; i < args.length; i++) {
+                if ("--port".equals(args[i]) && i + 1 < args.length) port = Integer.parseInt(args[++i]);
+                else if ("--currency".equals(args[i]) && i + 1 < args.length) currency = currency(args[++i]);
+                else if ("--window".equals(args[i]) && i + 1 < args.length) window = Long.parseLong(args[++i]);
+                else {
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+
+            // responses are small, so without TCP_NODELAY every one waits for delayed ACK of its headers
+            if (System.getProperty("sun.net.httpserver.nodelay") == null)
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            final FormatServer server = new FormatServer(port, currency, window);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            System.err.println("Formatting on http://localhost:" + server.getPort() + "/format");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Server failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** Write golden corpus with the default formatter or verify it, exit code is 1 when verification fails. */
+    private static void golden(String[] args) {
+        boolean write = "write".equals(args[1]);
+        if (!write && !"verify".equals(args[1])) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        try {
+            long from = 0, to = DEFAULT_GOLDEN_TO;
+            int sample = 1;
+            for (int i = 3; i < args.length; i++) {
+                if (write && "--from".equals(args[i]) && i + 1 < args.length) from = Long.parseLong(args[++i]);
+                else if (write && "--to".equals(args[i]) && i + 1 < args.length) to = Long.parseLong(args[++i]);
+                else if (!write && "--sample".equals(args[i]) && i + 1 < args.length) sample = Integer.parseInt(args[++i]);
+                else {
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+
+            long started = System.nanoTime();
+            Path corpus = Paths.get(args[2]);
+            if (write) {
+                GoldenCorpus.write(corpus, AmountInWords.getFormatter(), from, to);
+                System.err.printf("Corpus written in %.2f s%n", (System.nanoTime() - started) / 1e9);
+                return;
+            }
+
+            List<GoldenCorpus.Mismatch> mismatches = GoldenCorpus.verify(corpus, AmountInWords.getFormatter(), sample);
+            for (GoldenCorpus.Mismatch mismatch : mismatches) System.err.println(mismatch);
+            System.err.printf("%s in %.2f s%n", mismatches.isEmpty() ? "Same as corpus" : mismatches.size()
+                    + " blocks differ", (System.nanoTime() - started) / 1e9);
+            if (!mismatches.isEmpty()) System.exit(1);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Golden corpus failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static Currency currency(String codeOrName) {
+        Currency currency = Character.isDigit(codeOrName.charAt(0))
+                ? Currency.byCode(codeOrName) : Currency.byName(codeOrName);
+        if (currency == null) throw new IllegalArgumentException("Currency " + codeOrName + " is not found");
+        return currency;
+    }
+
+
+    private final Path input;
+    private final Path output;
+    private final boolean binary;
+    private final Currency currency;
+    private final long windowSize;
+    private final PrintStream log;
+
+    // chunk buffers are reused, so memory is bounded by chunk size
+    private final long[] amounts;
+    private final int[] codes;
+    private int count;
+    private long lineNumber;
+
+    // words of the chunk never reach the heap, the arena is reused by every chunk
+    private final Utf8Arena arena = new Utf8Arena();
+    private long records, bytesWritten;
+
+    /**
+     * Formatting of the input file into the output file, the same as <code>format</code> command does.
+     * @param binary input is made of binary records rather than lines of text
+     * @param currency currency of lines without currency code
+     * @param chunk number of amounts formatted at once
+     * @param windowSize size of input mapped into memory at once, lines should not be longer
+     * @param log progress and summary are printed to
+     */
+    public Main(Path input, Path output, boolean binary, Currency currency, int chunk, long windowSize,
+                PrintStream log) {
+        if (chunk < 1 || windowSize < RECORD_SIZE)
+            throw new IllegalArgumentException("Chunk " + chunk + " and window " + windowSize + " are too small");
+        this.input = input;
+        this.output = output;
+        this.binary = binary;
+        this.currency = currency;
+        this.windowSize = windowSize;
+        this.log = log;
+        this.amounts = new long[chunk];
+        this.codes = new int[chunk];
+    }
+
+    /**
+     * Format the whole input into the output.
+     * @throws IllegalArgumentException when a line is malformed, has too big amount or unknown currency,
+     *                                  the message tells the line or record number
+     */
+    public void run() throws IOException {
+        long started = System.nanoTime();
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            if (binary && size % RECORD_SIZE != 0)
+                throw new IllegalArgumentException("Binary input size " + size + " is not multiple of " + RECORD_SIZE);
+
+            long position = 0;
+            int lastPercent = -1;
+            while (position < size) {
+                // mappings are released by GC only, so every chunk of the window is read before the next one
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(windowSize, size - position));
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                boolean last = position + window.capacity() == size;
+
+                int offset = 0;
+                int consumed;
+                while ((consumed = binary ? readRecords(window, offset) : readLines(window, offset, last)) > 0) {
+                    writeChunk(target);
+                    offset += consumed;
+
+                    int percent = (int) ((position + offset) * 100 / size);
+                    if (percent / 10 != lastPercent / 10) {
+                        log.printf("%3d%% %,d records%n", percent, records);
+                        lastPercent = percent;
+                    }
+                }
+                // only the tail of the window which is not consumed is mapped again
+                if (offset == 0)
+                    throw new IllegalArgumentException("Line " + (lineNumber + 1) + " is longer than " + windowSize + " bytes");
+                position += offset;
+            }
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.printf("Formatted %,d records in %.2f s: %,.0f records/s, %,.1f MB written%n",
+                records, seconds, records / seconds, bytesWritten / 1e6);
+    }
+
+    /** Read as many whole records from the offset as fit into the chunk, return number of bytes consumed. */
+    private int readRecords(ByteBuffer window, int offset) {
+        count = 0;
+        int position = offset;
+        while (count < amounts.length && window.limit() - position >= RECORD_SIZE) {
+            amounts[count] = window.getLong(position);
+            codes[count] = window.getInt(position + 8);
+            if (amounts[count] > MAX_AMOUNT || amounts[count] < -MAX_AMOUNT)
+                throw new IllegalArgumentException("Record " + (records + count + 1) + " has amount "
+                        + amounts[count] + " beyond " + MAX_AMOUNT);
+            if (Currency.byCode(codes[count]) == null)
+                throw new IllegalArgumentException("Record " + (records + count + 1) + " has unknown currency "
+                        + codes[count]);
+            count++;
+            position += RECORD_SIZE;
+        }
+        return position - offset;
+    }
+
+    /**
+     * Parse as many whole lines from the offset as fit into the chunk, return number of bytes consumed.
+     * Line which is not terminated is consumed only at the end of input.
+     */
+    private int readLines(ByteBuffer window, int offset, boolean last) {
+        count = 0;
+        int consumed = offset;
+        int limit = window.limit();
+        int start = offset;
+        while (count < amounts.length && start < limit) {
+            int end = start;
+            while (end < limit && window.get(end) != '\n') end++;
+            if (end == limit && !last) break;
+
+            lineNumber++;
+            parseLine(window, start, end);
+            start = end + 1;
+            consumed = Math.min(start, limit);
+        }
+        return consumed - offset;
+    }
+
+    private void parseLine(ByteBuffer window, int from, int to) {
+        while (to > from && isBlank(window.get(to - 1))) to--;
+        while (from < to && isBlank(window.get(from))) from++;
+        if (from == to) return; // blank lines are skipped
+
+        int separator = from;
+        while (separator < to && window.get(separator) != ';') separator++;
+
+        amounts[count] = parseLong(window, from, separator);
+        if (amounts[count] > MAX_AMOUNT || amounts[count] < -MAX_AMOUNT)
+            throw new IllegalArgumentException("Line " + lineNumber + " has amount " + amounts[count] + " beyond "
+                    + MAX_AMOUNT);
+        codes[count] = separator < to ? (int) parseLong(window, separator + 1, to) : currency.getCode();
+        if (Currency.byCode(codes[count]) == null)
+            throw new IllegalArgumentException("Line " + lineNumber + " has unknown currency " + codes[count]);
+        count++;
+    }
+
+    private long parseLong(ByteBuffer window, int from, int to) {
+        while (from < to && isBlank(window.get(from))) from++;
+        while (to > from && isBlank(window.get(to - 1))) to--;
+
+        boolean negative = from < to && window.get(from) == '-';
+        if (negative) from++;
+        if (from == to || to - from > 18) throw malformedLine();
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = window.get(i) - '0';
+            if (digit < 0 || digit > 9) throw malformedLine();
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private IllegalArgumentException malformedLine() {
+        return new IllegalArgumentException("Line " + lineNumber + " is not an amount");
+    }
+
+    private void writeChunk(FileChannel target) throws IOException {
+        if (count == 0) return;
+
+        AmountInWords.formatAll(Arrays.copyOf(amounts, count), Arrays.copyOf(codes, count), arena);
+        bytesWritten += arena.writeTo(target);
+        records += count;
+    }
+}
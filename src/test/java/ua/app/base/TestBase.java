@@ -3,21 +3,21 @@ package ua.app.base;
 import org.testng.Assert;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
-import ua.app.utilities.ModifyList;
+import ua.app.businessObject.AmountFormatter;
 import ua.app.businessObject.AmountInWords;
-import ua.app.utilities.XLSReader;
+import ua.app.utilities.Fixture;
+import ua.app.utilities.SpreadsheetReader;
 
 import static ua.app.businessObject.AmountInWords.*;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
 
 /**
  * Created by Ievgen on 09.05.2016.
  */
 public class TestBase extends Assert {
+    private static final String TEST_DATA = "src/test/resources/testData.xls";
 
   //  private static String path2;
 
@@ -44,27 +44,24 @@ public class TestBase extends Assert {
     }
 
     @BeforeMethod(alwaysRun = true)
-    public void beforeMethod() throws NoSuchFieldException, IllegalAccessException {
-        Field field = AmountInWords.class.getDeclaredField("currencies");
-        List<Currency> newList = new ArrayList<Currency>();
-        newList.add(UAH); newList.add(EUR); newList.add(USD); newList.add(RUB);
-        ModifyList.modify(field, newList);
-
-        field = AmountInWords.class.getDeclaredField("defaultCurrency");
-        ModifyList.modify(field, AmountInWords.USD);
+    public void beforeMethod() {
+        resetAmountInWords(AmountInWords.USD);
 //        System.out.println(AmountInWords.getDefaultCurrency());
 //        System.out.println(AmountInWords.getCurrencies());
     }
 
+    /** Default is the same as before methods, tests formatting by default in parallel expect it all along. */
     @AfterMethod
-    public void afterMethod(ITestResult result) throws NoSuchFieldException, IllegalAccessException {
-        Field field = AmountInWords.class.getDeclaredField("currencies");
-        List<Currency> newList = new ArrayList<>();
-        newList.add(UAH); newList.add(EUR); newList.add(USD); newList.add(RUB);
-        ModifyList.modify(field, newList);
-
-        field = AmountInWords.class.getDeclaredField("defaultCurrency");
-        ModifyList.modify(field, AmountInWords.UAH);
+    public void afterMethod(ITestResult result) {
+        resetAmountInWords(AmountInWords.USD);
+    }
+
+    /**
+     * Restore predefined set of currencies and defaults at once, so tests running in parallel
+     * never see the registry half restored.
+     */
+    private static void resetAmountInWords(Currency defaultCurrency) {
+        AmountInWords.setFormatter(AmountFormatter.standard().withDefaultCurrency(defaultCurrency));
     }
 
     @BeforeTest
@@ -73,25 +70,33 @@ public class TestBase extends Assert {
     @AfterTest
     public void afterTest()  { }
 
+    /** Rows are decoded from the fixture compiled from the workbook, POI is not loaded unless it is stale. */
     @Parameters(value = "filePath")
     @DataProvider(name = "dataProviderForAmount")
-    public static Object[][] getDataAmount(Method method) {
+    public static Iterator<Object[]> getDataAmount(Method method) {
 
      //   path2 = filePath;
         String nameSheet = method.getName().toString();
-        XLSReader reader = new XLSReader("src\\test\\resources\\testData.xls");
-
-        return reader.parseAmount(nameSheet);
+        return Fixture.amounts(TEST_DATA, nameSheet);
     }
 
     @DataProvider(name = "dataProviderForCurrencies")
-    public static Object[][] getDataCurr(Method method) {
+    public static Iterator<Object[]> getDataCurr(Method method) {
 
         //    path2 = filePath;
         String nameSheet = method.getName().toString();
-        XLSReader reader = new XLSReader("src\\test\\resources\\testData.xls");
+        return Fixture.currencies(TEST_DATA, nameSheet);
+    }
+
+    /** Rows of the sheet are read from the file as tests take them, for sheets too big to be loaded at once. */
+    @DataProvider(name = "streamForAmount")
+    public static Iterator<Object[]> streamAmount(Method method) {
+        return SpreadsheetReader.amounts(TEST_DATA, method.getName());
+    }
 
-        return reader.parseCurrency(nameSheet);
+    @DataProvider(name = "streamForCurrencies")
+    public static Iterator<Object[]> streamCurr(Method method) {
+        return SpreadsheetReader.currencies(TEST_DATA, method.getName());
     }
 
     protected void print(String msg) throws NumberFormatException{
@@ -0,0 +1,123 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.FormatMetrics;
+import ua.app.businessObject.ResultCache;
+import ua.app.utilities.TestListener;
+
+import java.util.stream.IntStream;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Formatters should be independent of each other and of the shared one, so these tests never touch global state
+ * and run in parallel with any other test.
+ */
+@Listeners({TestListener.class})
+public class TestAmountFormatter extends TestBase {
+
+    @Test(groups = {"green"})
+    public void testStandardFormatterIsTheSameAsStatic() {
+        AmountFormatter formatter = AmountFormatter.standard();
+
+        assertEquals(formatter.getDefaultCurrency(), UAH);
+        assertEquals(formatter.getCurrencies().size(), 4);
+        for (long amount = 0; amount < 99999999999999999L / 7; amount = amount * 7 + 13)
+            assertEquals(formatter.format(amount, EUR), AmountInWords.format(amount, EUR));
+        assertEquals(formatter.format(100500), AmountInWords.format(100500, UAH));
+    }
+
+    @Test(groups = {"green"})
+    public void testWithLeavesFormatterUnchanged() {
+        AmountFormatter standard = AmountFormatter.standard();
+        AmountFormatter tenant = standard.withDefaultCurrency(USD).withCurrency(yen("иена")).withoutCurrency(RUB);
+
+        assertEquals(standard.getDefaultCurrency(), UAH);
+        assertNull(standard.byCode(392));
+        assertNotNull(standard.byCode(643));
+
+        assertEquals(tenant.getDefaultCurrency(), USD);
+        assertEquals(tenant.format(100, 392), "одна иена ноль сэн ");
+        assertNull(tenant.byName("RUB"));
+        assertEquals(tenant.format(100), AmountInWords.format(100, USD));
+    }
+
+    @Test(groups = {"green"})
+    public void testTenantsRunInParallel() {
+        final AmountFormatter first = AmountFormatter.standard().withDefaultCurrency(EUR).withCurrency(yen("иена"));
+        final AmountFormatter second = AmountFormatter.standard().withDefaultCurrency(RUB).withCurrency(yen("йена"));
+
+        IntStream.range(0, 100000).parallel().forEach(i -> {
+            assertEquals(first.format(i), AmountInWords.format(i, EUR));
+            assertEquals(second.format(i), AmountInWords.format(i, RUB));
+            assertTrue(first.format(100, 392).startsWith("одна иена"));
+            assertTrue(second.format(100, 392).startsWith("одна йена"));
+        });
+    }
+
+    @Test(groups = {"green"})
+    public void testTenantsShareCache() {
+        ResultCache cache = new ResultCache(1024, ResultCache.EvictionPolicy.LRU);
+        AmountFormatter first = AmountFormatter.standard().withCurrency(yen("иена")).withResultCache(cache);
+        AmountFormatter second = AmountFormatter.standard().withCurrency(yen("йена")).withResultCache(cache);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(first.format(100, 392), "одна иена ноль сэн ");
+            assertEquals(second.format(100, 392), "одна йена ноль сэн ");
+        }
+        assertTrue(cache.hits() >= 4, cache.toString());
+    }
+
+    @Test(groups = {"green"})
+    public void testDerivedFormattersKeepSharedCache() {
+        ResultCache cache = new ResultCache(1024, ResultCache.EvictionPolicy.LRU);
+        FormatMetrics metrics = new FormatMetrics();
+        AmountFormatter shared = AmountFormatter.standard().withResultCache(cache).withMetrics(metrics);
+        shared.format(100500, USD);
+
+        shared.withCurrency(yen("иена")).withoutCurrency(RUB);
+        shared.withCurrencyMapping((CurrencyMapping<String>) name -> Currency.byName(name));
+        shared.withResultCache(new ResultCache(16, ResultCache.EvictionPolicy.CLOCK));
+        assertEquals(cache.size(), 1);
+
+        shared.format(100500, USD);
+        assertEquals(cache.hits(), 1);
+        assertEquals(metrics.getCacheHits(), 1);
+    }
+
+    @Test(groups = {"green"})
+    public void testMappingOfFormatter() {
+        AmountFormatter formatter = AmountFormatter.standard()
+                .withCurrencyMapping((CurrencyMapping<String>) name -> Currency.byName(name));
+
+        assertEquals(formatter.format(100500, "USD"), AmountInWords.format(100500, USD));
+        assertEquals(formatter.formatAll(new long[] { 1, 2 }, "EUR"), AmountInWords.formatAll(new long[] { 1, 2 }, EUR));
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalStateException.class})
+    public void testCurrencyIsRegisteredOnce() {
+        AmountFormatter.standard().withCurrency(USD);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testFormatterShouldNotBeNull() {
+        AmountInWords.setFormatter(null);
+    }
+
+    private static Currency yen(final String one) {
+        return new AmountInWords.Currency(392, "JPY") {{
+            oneInteger = one;
+            twoIntegers = "иены";
+            fiveIntegers = "иен";
+            integerSex = AmountInWords.Sex.FEMALE;
+            oneFraction = "сэн";
+            twoFractions = "сэн";
+            fiveFractions = "сэн";
+            fractionSex = AmountInWords.Sex.MALE;
+        }};
+    }
+}
@@ -1,6 +1,5 @@
 package ua.app.tests;
 
-import jdk.nashorn.internal.ir.annotations.Ignore;
 import org.apache.log4j.Logger;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.Matchers;
@@ -0,0 +1,95 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.utilities.TestListener;
+
+import java.math.BigDecimal;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * BigDecimal amounts should be formatted as long ones while they fit and go beyond them otherwise.
+ */
+@Listeners({TestListener.class})
+public class TestBigDecimalAmounts extends TestBase {
+
+    @Test(groups = {"green"})
+    public void testSameAsLong() {
+        long[] amounts = { 0, 1, 100, 125012, -125012, 100000000000L, 99999999999999999L, -99999999999999999L };
+        for (long amount : amounts)
+            assertEquals(AmountInWords.format(BigDecimal.valueOf(amount, 2), EUR), AmountInWords.format(amount, EUR));
+    }
+
+    @Test(groups = {"green"})
+    public void testBeyondLong() {
+        assertEquals(AmountInWords.format(new BigDecimal("1000000000000000"), UAH),
+                "один квадриллион гривен ноль копеек ");
+        assertEquals(AmountInWords.format(new BigDecimal("2000000000000000000003.04"), USD),
+                "два секстиллиона три доллара четыре цента ");
+        assertEquals(AmountInWords.format(new BigDecimal("5E+33"), RUB),
+                "пять дециллионов рублей ноль копеек ");
+    }
+
+    @Test(groups = {"green"})
+    public void testTrailingZerosAreAccepted() {
+        assertEquals(AmountInWords.format(new BigDecimal("12.5000"), UAH), "двенадцать гривен пятьдесят копеек ");
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testTooManyFractionDigits() {
+        AmountInWords.format(new BigDecimal("0.001"), UAH);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {UnsupportedOperationException.class})
+    public void testTooManyIntegerDigits() {
+        AmountInWords.format(new BigDecimal("1E+36"), UAH);
+    }
+
+    @Test(groups = {"green"})
+    public void testThreeFractionDigits() {
+        Currency dinar = currency(414, "KWD", 3, Sex.MALE, "динар", "динара", "динаров", "филс", "филса", "филсов");
+
+        assertEquals(AmountInWords.format(new BigDecimal("21.125"), dinar), "двадцать один динар сто двадцать пять филсов ");
+        assertEquals(AmountInWords.format(21125, dinar), "двадцать один динар сто двадцать пять филсов ");
+    }
+
+    @Test(groups = {"green"})
+    public void testEightFractionDigits() {
+        Currency bitcoin = currency(900, "XBT", 8, Sex.MALE, "биткоин", "биткоина", "биткоинов", "сатоши", "сатоши", "сатоши");
+
+        assertEquals(AmountInWords.format(new BigDecimal("0.12345678"), bitcoin),
+                "ноль биткоинов двенадцать миллионов триста сорок пять тысяч шестьсот семьдесят восемь сатоши ");
+    }
+
+    @Test(groups = {"green"})
+    public void testNoFractionDigits() {
+        Currency yen = currency(392, "JPY", 0, Sex.FEMALE, "иена", "иены", "иен", "сэн", "сэна", "сэн");
+
+        assertEquals(AmountInWords.format(new BigDecimal("1500"), yen), "одна тысяча пятьсот иен ");
+        assertEquals(AmountInWords.format(1501, yen), "одна тысяча пятьсот одна иена ");
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testAddCurrencyWithTooManyFractionDigits() {
+        AmountInWords.addCurrency(currency(901, "XXX", 19, Sex.MALE, "a", "b", "c", "d", "e", "f"));
+    }
+
+    private static Currency currency(int code, String name, final int digits, final Sex sex, final String one,
+                                     final String two, final String five, final String oneMinor,
+                                     final String twoMinor, final String fiveMinor) {
+        return new AmountInWords.Currency(code, name) {{
+            oneInteger = one;
+            twoIntegers = two;
+            fiveIntegers = five;
+            integerSex = sex;
+            oneFraction = oneMinor;
+            twoFractions = twoMinor;
+            fiveFractions = fiveMinor;
+            fractionSex = Sex.MALE;
+            fractionDigits = digits;
+        }};
+    }
+}
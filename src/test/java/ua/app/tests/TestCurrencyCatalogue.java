@@ -0,0 +1,125 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.CurrencyCatalogue;
+import ua.app.utilities.TestListener;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Catalogue should be registered as a whole or not at all, concurrent registrations never register a code twice.
+ */
+@Listeners({TestListener.class})
+public class TestCurrencyCatalogue extends TestBase {
+    private static final String CATALOGUE = "src/test/resources/currencies.catalogue";
+
+    @Test(groups = {"green"})
+    public void testRegisterCatalogue() throws IOException {
+        List<Currency> catalogue = CurrencyCatalogue.read(Paths.get(CATALOGUE));
+        AmountInWords.registerAll(catalogue);
+
+        assertEquals(AmountInWords.getCurrencies().size(), 4 + catalogue.size());
+        assertEquals(AmountInWords.format(100, 826), "один фунт ноль пенсов ");
+        assertEquals(AmountInWords.format(2, Currency.byName("JPY")), "две иены ");
+        assertEquals(AmountInWords.format(5001, 48), "пять динаров один филс ");
+        assertEquals(AmountInWords.format(102, Currency.byName("BYN")), "один рубль две копейки ");
+    }
+
+    @Test(groups = {"green"})
+    public void testNothingRegisteredWhenBatchClashes() throws IOException {
+        List<Currency> catalogue = CurrencyCatalogue.read(Paths.get(CATALOGUE));
+        List<Currency> clashing = new ArrayList<Currency>(catalogue);
+        clashing.add(currency(999, "USD"));
+
+        try {
+            AmountInWords.registerAll(clashing);
+            fail("USD is registered");
+        } catch (IllegalStateException e) {
+            assertEquals(AmountInWords.getCurrencies().size(), 4);
+        }
+
+        try {
+            AmountInWords.registerAll(Arrays.asList(currency(998, "AAA"), currency(998, "BBB")));
+            fail("998 is given twice");
+        } catch (IllegalStateException e) {
+            assertNull(Currency.byName("AAA"));
+            assertNull(Currency.byName("BBB"));
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testConcurrentRegistrationsNeverDuplicate() throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int first = 100 + t * 10;
+            threads[t] = new Thread(() -> {
+                List<Currency> batch = new ArrayList<Currency>();
+                // batches overlap by half, so at most one of two neighbouring batches is registered
+                for (int code = first; code < first + 20; code++) batch.add(currency(code, "C" + code));
+                try {
+                    start.await();
+                    AmountInWords.registerAll(batch);
+                } catch (IllegalStateException | InterruptedException e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        List<Currency> registered = AmountInWords.getCurrencies();
+        assertEquals(registered.size(), 4 + (threads.length - failures.size()) * 20, failures.toString());
+        for (Currency c : registered) assertEquals(registered.indexOf(c), registered.lastIndexOf(c), c.toString());
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatterIsUnchanged() throws IOException {
+        AmountFormatter standard = AmountFormatter.standard();
+        AmountFormatter all = standard.withCurrencies(CurrencyCatalogue.read(Paths.get(CATALOGUE)));
+
+        assertEquals(standard.getCurrencies().size(), 4);
+        assertNotNull(all.byCode(826));
+        assertSame(standard.withCurrencies(new ArrayList<Currency>()), standard);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class},
+            expectedExceptionsMessageRegExp = "Currency catalogue line 2 .*")
+    public void testMalformedLine() throws IOException {
+        CurrencyCatalogue.read(new StringReader("# comment\n826=GBP;фунт,фунта,фунтов,MALE;пенс,пенса,пенсов\n"));
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnknownGender() throws IOException {
+        CurrencyCatalogue.read(new StringReader("826=GBP;фунт,фунта,фунтов,MALE;пенс,пенса,пенсов,NEUTER\n"));
+    }
+
+    private static Currency currency(int code, String name) {
+        return new Currency(code, name) {{
+            oneInteger = "единица";
+            twoIntegers = "единицы";
+            fiveIntegers = "единиц";
+            integerSex = Sex.FEMALE;
+            oneFraction = "сотая";
+            twoFractions = "сотых";
+            fiveFractions = "сотых";
+            fractionSex = Sex.FEMALE;
+        }};
+    }
+}
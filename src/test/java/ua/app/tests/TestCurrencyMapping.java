@@ -0,0 +1,88 @@
+package ua.app.tests;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.utilities.TestListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Custom currency mapping should be resolved once per currency and follow registry changes.
+ */
+@Listeners({TestListener.class})
+public class TestCurrencyMapping extends TestBase {
+
+    @AfterMethod(alwaysRun = true)
+    public void resetMapping() {
+        AmountInWords.setCurrencyMapping(null);
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatByCode() {
+        for (Currency currency : new Currency[] { UAH, EUR, USD, RUB })
+            assertEquals(AmountInWords.format(100500, currency.getCode()), AmountInWords.format(100500, currency));
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testFormatByUnknownCode() {
+        AmountInWords.format(100500, 1);
+    }
+
+    @Test(groups = {"green"})
+    public void testMappingIsResolvedOncePerCurrency() {
+        ByName mapping = new ByName();
+        AmountInWords.setCurrencyMapping(mapping);
+
+        for (long amount = 0; amount < 1000; amount++) {
+            assertEquals(AmountInWords.format(amount, "USD"), AmountInWords.format(amount, USD));
+            assertEquals(AmountInWords.format(amount, "EUR"), AmountInWords.format(amount, EUR));
+        }
+
+        // registry may be reset by tests running in parallel, which drops resolved currencies,
+        // so only check that mapping is called per currency rather than per amount
+        assertTrue(mapping.calls.get() < 100, mapping.calls + " mapping calls");
+    }
+
+    @Test(groups = {"green"})
+    public void testMappingFollowsRegistryChanges() {
+        AmountInWords.setCurrencyMapping(new ByName());
+        AmountInWords.addCurrency(yen("иена"));
+        String before = AmountInWords.format(100, "JPY");
+
+        AmountInWords.removeCurrency(Currency.byName("JPY"));
+        AmountInWords.addCurrency(yen("йена"));
+        String after = AmountInWords.format(100, "JPY");
+
+        assertEquals(before, "одна иена ноль сэн ");
+        assertEquals(after, "одна йена ноль сэн ");
+    }
+
+    /** Resolves currency names, currencies themselves are passed through. */
+    private static class ByName implements CurrencyMapping<Object> {
+        final AtomicInteger calls = new AtomicInteger();
+
+        public Currency getCurrency(Object currency) {
+            if (currency instanceof Currency) return (Currency) currency;
+            calls.incrementAndGet();
+            return Currency.byName((String) currency);
+        }
+    }
+
+    private static Currency yen(final String one) {
+        return new AmountInWords.Currency(392, "JPY") {{
+            oneInteger = one;
+            twoIntegers = "иены";
+            fiveIntegers = "иен";
+            integerSex = AmountInWords.Sex.FEMALE;
+            oneFraction = "сэн";
+            twoFractions = "сэн";
+            fiveFractions = "сэн";
+            fractionSex = AmountInWords.Sex.MALE;
+        }};
+    }
+}
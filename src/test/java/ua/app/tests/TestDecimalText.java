@@ -0,0 +1,140 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.DecimalSyntax;
+import ua.app.utilities.TestListener;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Amounts given as decimal text should be formatted exactly as the same amounts given in hundredths.
+ * Tests use their own formatter, so they run in parallel with any other test.
+ */
+@Listeners({TestListener.class})
+public class TestDecimalText extends TestBase {
+    private static final long MAX = 99999999999999999L;
+
+    private final AmountFormatter formatter = AmountFormatter.standard();
+
+    @Test(groups = {"green"})
+    public void testPlainText() {
+        assertEquals(formatter.format("1234567.89", UAH), formatter.format(123456789L, UAH));
+        assertEquals(formatter.format("0.01", USD), formatter.format(1L, USD));
+        assertEquals(formatter.format("-1000000", EUR), formatter.format(-100000000L, EUR));
+        assertEquals(formatter.format("+5.5", RUB), formatter.format(550L, RUB));
+        assertEquals(formatter.format(" 12.30\t", UAH), formatter.format(1230L, UAH));
+        assertEquals(formatter.format(".5", UAH), formatter.format(50L, UAH));
+        assertEquals(formatter.format(new StringBuilder("7."), UAH), formatter.format(700L, UAH));
+    }
+
+    @Test(groups = {"green"})
+    public void testRandomAmounts() {
+        Random random = new Random(25);
+        for (int i = 0; i < 100000; i++) {
+            long amount = (random.nextLong() >>> 1) % MAX >> random.nextInt(57);
+            if (random.nextBoolean()) amount = -amount;
+            String text = BigDecimal.valueOf(amount, 2).toPlainString();
+            assertEquals(formatter.format(text, USD), formatter.format(amount, USD), text);
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testSpacedText() {
+        String words = formatter.format(123456789L, UAH);
+        assertEquals(formatter.format("1 234 567,89", UAH, DecimalSyntax.SPACED), words);
+        assertEquals(formatter.format("1\u00A0234\u00A0567,89", UAH, DecimalSyntax.SPACED), words);
+        assertEquals(formatter.format("1\u202F234\u202F567,89", UAH, DecimalSyntax.SPACED), words);
+        assertEquals(formatter.format("1'234'567.89", UAH, DecimalSyntax.of('.', "'")), words);
+    }
+
+    @Test(groups = {"green"})
+    public void testUtf8Bytes() {
+        String words = formatter.format(-123456789L, UAH);
+        ByteBuffer bytes = ByteBuffer.wrap("amount=-1\u00A0234\u202F567,89;".getBytes(StandardCharsets.UTF_8));
+        bytes.position(7).limit(bytes.limit() - 1);
+        assertEquals(formatter.format(bytes, UAH, DecimalSyntax.SPACED), words);
+        assertEquals(bytes.position(), 7);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        direct.put("42.10".getBytes(StandardCharsets.US_ASCII)).flip();
+        assertEquals(formatter.format(direct, USD), formatter.format(4210L, USD));
+    }
+
+    @Test(groups = {"green"})
+    public void testFractionDigits() {
+        assertEquals(formatter.format("12.3000", UAH), formatter.format(1230L, UAH));
+        assertEquals(formatter.format("12", UAH), formatter.format(1200L, UAH));
+
+        Currency yen = new Currency(392, "JPY") {{
+            oneInteger = "иена";
+            twoIntegers = "иены";
+            fiveIntegers = "иен";
+            integerSex = Sex.FEMALE;
+            oneFraction = "сэн";
+            twoFractions = "сэна";
+            fiveFractions = "сэнов";
+            fractionSex = Sex.MALE;
+            fractionDigits = 0;
+        }};
+        AmountFormatter withYen = formatter.withCurrency(yen);
+        assertEquals(withYen.format("1500.00", withYen.byCode(392)), withYen.format(1500L, 392));
+    }
+
+    @Test(groups = {"green"})
+    public void testGreatestAmount() {
+        assertEquals(formatter.format("999999999999999.99", UAH), formatter.format(MAX, UAH));
+        assertEquals(formatter.format("-999 999 999 999 999", UAH, DecimalSyntax.SPACED),
+                formatter.format(-MAX + 99, UAH));
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {UnsupportedOperationException.class})
+    public void testTooBigAmount() {
+        formatter.format("1000000000000000", UAH);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {UnsupportedOperationException.class})
+    public void testTooManyDigits() {
+        formatter.format("99999999999999999999999999.00", UAH);
+    }
+
+    @Test(groups = {"green"})
+    public void testMalformedText() {
+        String[] malformed = { "", " ", "-", "+.", "1.2.3", "1,5", "12a", "1 234", "1.234", "0x10", "--1" };
+        for (String text : malformed) assertMalformed(text, DecimalSyntax.PLAIN);
+
+        String[] spaced = { "1  234", "\u00A0234", "1 ,5", "1,5 0", "1.5", ",", "1 234,5x" };
+        for (String text : spaced) assertMalformed(text, DecimalSyntax.SPACED);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testTooManyFractionDigits() {
+        formatter.format("1.001", UAH);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testBrokenUtf8() {
+        formatter.format(ByteBuffer.wrap(new byte[] { '1', (byte) 0xC2, '2' }), UAH, DecimalSyntax.SPACED);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testSameSeparators() {
+        DecimalSyntax.of(',', " ,");
+    }
+
+    private void assertMalformed(String text, DecimalSyntax syntax) {
+        try {
+            formatter.format(text, UAH, syntax);
+            fail("Text \"" + text + "\" is not rejected by " + syntax);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Amount text"), e.getMessage());
+        }
+    }
+}
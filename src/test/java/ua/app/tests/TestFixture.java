@@ -0,0 +1,79 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.utilities.Fixture;
+import ua.app.utilities.FixtureCompiler;
+import ua.app.utilities.SpreadsheetReader;
+import ua.app.utilities.TestListener;
+import ua.app.utilities.WorkbookCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Rows of compiled fixtures should be the same as rows of workbooks, and fixtures are compiled again only when
+ * their workbooks change.
+ */
+@Listeners({TestListener.class})
+public class TestFixture extends TestBase {
+    private static final String TEST_DATA = "src/test/resources/testData.xls";
+    private static final String CHECKLIST = "src/test/resources/checklist.xlsx";
+
+    @Test(groups = {"green"})
+    public void testSameRowsAsWorkbook() {
+        for (String nameSheet : SpreadsheetReader.sheetNames(TEST_DATA)) {
+            assertTrue(Arrays.deepEquals(rows(Fixture.amounts(TEST_DATA, nameSheet)),
+                    WorkbookCache.amounts(TEST_DATA, nameSheet)), nameSheet);
+            assertTrue(Arrays.deepEquals(rows(Fixture.currencies(TEST_DATA, nameSheet)),
+                    WorkbookCache.currencies(TEST_DATA, nameSheet)), nameSheet);
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testSameRowsAsXlsx() {
+        for (String nameSheet : SpreadsheetReader.sheetNames(CHECKLIST)) {
+            assertTrue(Arrays.deepEquals(rows(Fixture.amounts(CHECKLIST, nameSheet)),
+                    rows(SpreadsheetReader.amounts(CHECKLIST, nameSheet))), nameSheet);
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testCompiledOnlyWhenStale() throws IOException {
+        Path directory = Files.createTempDirectory("fixtures");
+        Path workbook = directory.resolve("testData.xls");
+        Path fixture = directory.resolve("testData.xls.fixture");
+        try {
+            Files.copy(Paths.get(TEST_DATA), workbook);
+            assertTrue(FixtureCompiler.compileIfStale(workbook, fixture));
+            assertFalse(FixtureCompiler.compileIfStale(workbook, fixture));
+
+            Files.setLastModifiedTime(workbook,
+                    FileTime.fromMillis(Files.getLastModifiedTime(fixture).toMillis() + 1000));
+            assertTrue(FixtureCompiler.compileIfStale(workbook, fixture));
+        } finally {
+            for (File file : directory.toFile().listFiles()) file.delete();
+            Files.delete(directory);
+        }
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnknownSheet() {
+        Fixture.amounts(TEST_DATA, "noSuchSheet");
+    }
+
+    private static Object[][] rows(Iterator<Object[]> iterator) {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        while (iterator.hasNext()) rows.add(iterator.next());
+        return rows.toArray(new Object[rows.size()][]);
+    }
+}
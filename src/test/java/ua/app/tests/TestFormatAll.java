@@ -0,0 +1,135 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.Utf8Arena;
+import ua.app.utilities.TestListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.LongStream;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Batch formatting should give exactly what format gives amount by amount.
+ */
+@Listeners({TestListener.class})
+public class TestFormatAll extends TestBase {
+
+    // big enough to be split between fork/join tasks
+    private static final int BATCH_SIZE = 50000;
+
+    @Test(groups = {"green"})
+    public void testFormatAllSingleCurrency() {
+        long[] amounts = amounts();
+        String[] actual = AmountInWords.formatAll(amounts, EUR);
+
+        for (int i = 0; i < amounts.length; i++)
+            assertEquals(actual[i], AmountInWords.format(amounts[i], EUR));
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatAllMixedCurrencies() {
+        long[] amounts = amounts();
+        Currency[] currencies = { UAH, EUR, USD, RUB };
+        int[] codes = new int[amounts.length];
+        for (int i = 0; i < codes.length; i++) codes[i] = currencies[i % currencies.length].getCode();
+
+        String[] actual = AmountInWords.formatAll(amounts, codes);
+
+        for (int i = 0; i < amounts.length; i++)
+            assertEquals(actual[i], AmountInWords.format(amounts[i], currencies[i % currencies.length]));
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatAllParallelStreamKeepsOrder() {
+        long[] amounts = amounts();
+        String[] actual = AmountInWords.formatAll(LongStream.of(amounts).parallel(), USD);
+
+        assertEquals(actual, AmountInWords.formatAll(amounts, USD));
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatAllIntoArena() {
+        long[] amounts = amounts();
+        Currency[] currencies = { UAH, EUR, USD, RUB };
+        int[] codes = new int[amounts.length];
+        for (int i = 0; i < codes.length; i++) codes[i] = currencies[i % currencies.length].getCode();
+        // small segments, so parts of the batch take several of them
+        Utf8Arena arena = new Utf8Arena(4096, "\n");
+
+        AmountInWords.formatAll(amounts, codes, arena);
+
+        String[] expected = AmountInWords.formatAll(amounts, codes);
+        assertEquals(arena.size(), amounts.length);
+        long offset = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(arena.getString(i), expected[i]);
+            assertEquals(arena.offset(i), offset);
+            offset += arena.length(i) + 1;
+        }
+        assertEquals(arena.byteSize(), offset);
+    }
+
+    @Test(groups = {"green"})
+    public void testArenaIsWrittenAndReused() throws IOException {
+        Utf8Arena arena = new Utf8Arena();
+        AmountInWords.formatAll(amounts(), USD, arena);
+        long capacity = arena.capacity();
+
+        long[] amounts = { 0, 100, 100500, 99999999999999999L };
+        AmountInWords.formatAll(amounts, USD, arena);
+        assertEquals(arena.size(), amounts.length);
+        assertEquals(arena.capacity(), capacity);
+
+        File file = File.createTempFile("words", ".txt");
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            assertEquals(arena.writeTo(channel), arena.byteSize());
+        }
+        try {
+            StringBuilder expected = new StringBuilder();
+            for (String words : AmountInWords.formatAll(amounts, USD)) expected.append(words).append('\n');
+            assertEquals(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), expected.toString());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalBlockingModeException.class})
+    public void testArenaNeedsBlockingChannel() throws IOException {
+        Utf8Arena arena = AmountInWords.formatAll(new long[] { 100 }, USD, new Utf8Arena());
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.sink().configureBlocking(false);
+            arena.writeTo(pipe.sink());
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IndexOutOfBoundsException.class})
+    public void testArenaIndexOutOfBounds() {
+        AmountInWords.formatAll(new long[] { 100 }, USD, new Utf8Arena()).get(1);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testFormatAllUnknownCurrency() {
+        AmountInWords.formatAll(new long[] { 100, 200 }, new int[] { UAH.getCode(), 1 });
+    }
+
+    private static long[] amounts() {
+        long[] amounts = new long[BATCH_SIZE];
+        for (int i = 0; i < amounts.length; i++) amounts[i] = i * 2654435761L % 99999999999999999L;
+        return amounts;
+    }
+}
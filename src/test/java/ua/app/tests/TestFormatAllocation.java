@@ -0,0 +1,118 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.utilities.TestListener;
+
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Checks that formatting into the caller's buffer does not allocate in steady state
+ * and gives the same result as format.
+ */
+@Listeners({TestListener.class})
+public class TestFormatAllocation extends TestBase {
+
+    private static final int WARM_UP = 20000;
+    private static final int MEASURED = 10000;
+
+    @Test(groups = {"green"})
+    public void testFormatToIsAllocationFree() {
+        final StringBuilder buffer = new StringBuilder(512);
+
+        formatRange(buffer, WARM_UP);
+        long allocated = allocatedBy(new Runnable() {
+            public void run() { formatRange(buffer, MEASURED); }
+        });
+
+        assertEquals(allocated, 0L, "bytes allocated by " + MEASURED + " formatTo calls");
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatToAppendsFormat() {
+        StringBuilder buffer = new StringBuilder("> ");
+        AmountInWords.formatTo(123456789012L, EUR, buffer);
+        assertEquals(buffer.toString(), "> " + AmountInWords.format(123456789012L, EUR));
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatUtf8IsAllocationFree() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+
+        formatUtf8Range(buffer, WARM_UP);
+        long allocated = allocatedBy(new Runnable() {
+            public void run() { formatUtf8Range(buffer, MEASURED); }
+        });
+
+        assertEquals(allocated, 0L, "bytes allocated by " + MEASURED + " formatUtf8 calls");
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatUtf8EncodesFormat() {
+        ByteBuffer heap = ByteBuffer.allocate(1024);
+        ByteBuffer direct = ByteBuffer.allocateDirect(1024);
+        for (long step = 0; step < 99999999999999999L / 3; step = step * 3 + 7) {
+            long amount = step % 2 == 0 ? step : -step;
+            byte[] expected = AmountInWords.format(amount, RUB).getBytes(StandardCharsets.UTF_8);
+
+            for (ByteBuffer buffer : new ByteBuffer[] { heap, direct }) {
+                buffer.clear();
+                assertEquals(AmountInWords.formatUtf8(amount, RUB, buffer), expected.length);
+                byte[] actual = new byte[expected.length];
+                buffer.flip();
+                buffer.get(actual);
+                assertEquals(actual, expected);
+            }
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatUtf8OverflowKeepsPosition() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        buffer.put((byte) '>');
+        try {
+            AmountInWords.formatUtf8(123456789012L, USD, buffer);
+            fail("BufferOverflowException expected");
+        } catch (BufferOverflowException e) {
+            assertEquals(buffer.position(), 1);
+        }
+    }
+
+    /**
+     * Least number of bytes allocated by the current thread over a few runs of the action.
+     * Single run may be hit by deoptimization caused by classes loaded in parallel tests.
+     */
+    private static long allocatedBy(Runnable action) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long least = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 3 && least > 0; attempt++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            action.run();
+            least = Math.min(least, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return least;
+    }
+
+    private static void formatUtf8Range(ByteBuffer buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            buffer.clear();
+            AmountInWords.formatUtf8(i * 7919L * 104729L, UAH, buffer);
+        }
+    }
+
+    private static void formatRange(StringBuilder buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            buffer.setLength(0);
+            AmountInWords.formatTo(i * 7919L * 104729L, UAH, buffer);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.FormatMetrics;
+import ua.app.businessObject.ResultCache;
+import ua.app.utilities.TestListener;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Metrics should count every call of the formatter they are attached to, each test uses its own formatter.
+ */
+@Listeners({TestListener.class})
+public class TestFormatMetrics extends TestBase {
+
+    @Test(groups = {"green"})
+    public void testCallsAreCountedPerCurrency() {
+        FormatMetrics metrics = new FormatMetrics();
+        AmountFormatter formatter = AmountFormatter.standard().withMetrics(metrics);
+
+        for (long amount = 0; amount < 100; amount++) formatter.format(amount, USD);
+        formatter.format(100500);
+        formatter.format(100500, EUR.getCode());
+        formatter.format(new BigDecimal("12.5"), EUR);
+        formatter.formatTo(1, RUB, new StringBuilder());
+        formatter.formatUtf8(1, RUB, ByteBuffer.allocate(256));
+        formatter.formatAll(new long[] { 1, 2, 3 }, UAH);
+        formatter.formatAll(new long[] { 1, 2 }, new int[] { USD.getCode(), EUR.getCode() });
+
+        assertEquals(metrics.getCalls(), 107);
+        assertEquals(metrics.getAmounts(), 110);
+        Map<String, Long> byCurrency = metrics.getAmountsByCurrency();
+        assertEquals(byCurrency.get("840"), Long.valueOf(101));
+        assertEquals(byCurrency.get("978"), Long.valueOf(3));
+        assertEquals(byCurrency.get("643"), Long.valueOf(2));
+        assertEquals(byCurrency.get("980"), Long.valueOf(4));
+        assertTrue(metrics.percentileNanos(840, 0.99) > 0);
+        assertTrue(metrics.percentileNanos(840, 0.5) <= metrics.percentileNanos(840, 0.99));
+        assertEquals(metrics.percentileNanos(392, 0.5), 0);
+    }
+
+    @Test(groups = {"green"})
+    public void testRejectionsAreCounted() {
+        FormatMetrics metrics = new FormatMetrics();
+        AmountFormatter formatter = AmountFormatter.standard().withMetrics(metrics);
+
+        for (Runnable call : new Runnable[] {
+                () -> formatter.format(999999999999999999L, USD),
+                () -> formatter.format(new BigDecimal("1e40"), USD),
+                () -> formatter.formatAll(new long[] { 1, 999999999999999999L }, USD),
+                () -> formatter.format(1, 1),
+                () -> formatter.format(new BigDecimal("0.001"), USD),
+                () -> formatter.format(1, USD, new java.util.Locale("xx")) }) {
+            try {
+                call.run();
+                fail("Call should be rejected");
+            } catch (IllegalArgumentException | UnsupportedOperationException expected) {
+                // counted
+            }
+        }
+
+        assertEquals(metrics.getRejectedAmounts(), 3);
+        assertEquals(metrics.getRejectedArguments(), 3);
+        assertEquals(metrics.getAmounts(), 0);
+    }
+
+    @Test(groups = {"green"})
+    public void testRegistryChangesAndCacheAreCounted() {
+        FormatMetrics metrics = new FormatMetrics();
+        AmountFormatter formatter = AmountFormatter.standard()
+                .withResultCache(new ResultCache(1024, ResultCache.EvictionPolicy.LRU)).withMetrics(metrics)
+                .withoutCurrency(RUB).withCurrency(RUB);
+
+        for (int i = 0; i < 4; i++) formatter.format(100500, USD);
+
+        assertEquals(metrics.getRegistryChanges(), 2);
+        assertEquals(metrics.getCacheHits(), 3);
+        assertEquals(metrics.getCacheMisses(), 1);
+        assertEquals(metrics.getCacheHitRatio(), 0.75, 1e-9);
+
+        metrics.reset();
+        assertEquals(metrics.getCalls(), 0);
+        assertTrue(metrics.getAmountsByCurrency().isEmpty());
+    }
+
+    @Test(groups = {"green"})
+    public void testMetricsArePublishedAsMBean() throws Exception {
+        FormatMetrics metrics = new FormatMetrics();
+        AmountFormatter formatter = AmountFormatter.standard().withMetrics(metrics);
+        formatter.format(100, USD);
+
+        ObjectName name = metrics.registerMBean("TestFormatMetrics");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(server.getAttribute(name, "Calls"), 1L);
+            assertEquals(server.getAttribute(name, "RejectedAmounts"), 0L);
+            assertNotNull(server.getAttribute(name, "P99NanosByCurrency"));
+        } finally {
+            FormatMetrics.unregisterMBean("TestFormatMetrics");
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test(groups = {"green"})
+    public void testFormatterWithoutMetricsIsTheSame() {
+        AmountFormatter counted = AmountFormatter.standard().withMetrics(new FormatMetrics());
+
+        for (long amount = 0; amount < 99999999999999999L / 7; amount = amount * 7 + 13)
+            assertEquals(counted.format(amount, EUR), AmountInWords.format(amount, EUR));
+    }
+}
@@ -0,0 +1,227 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.FormatProcessor;
+import ua.app.utilities.TestListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Processor should emit what format gives in the order amounts came, never request more than it could buffer
+ * and stop upstream on cancellation or failure.
+ */
+@Listeners({TestListener.class})
+public class TestFormatProcessor extends TestBase {
+    private static final int BUFFER = 64;
+    private static final int BATCH = 16;
+
+    /** Formatting runs on other threads than upstream and subscriber. */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "format-processor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AmountFormatter formatter = AmountFormatter.standard();
+
+    @Test(groups = {"green"})
+    public void testSameAsFormatInOrder() throws Exception {
+        FormatProcessor<Long> processor = FormatProcessor.amounts(formatter, USD);
+        Collector collector = new Collector(100, Long.MAX_VALUE);
+        processor.subscribe(collector);
+
+        try (SubmissionPublisher<Long> publisher = new SubmissionPublisher<Long>()) {
+            publisher.subscribe(processor);
+            for (long amount = 0; amount < 100000; amount++) publisher.submit(amount * 7919);
+        }
+
+        List<String> words = collector.done.get(30, TimeUnit.SECONDS);
+        assertEquals(words.size(), 100000);
+        for (int i = 0; i < words.size(); i++) assertEquals(words.get(i), formatter.format(i * 7919L, USD));
+    }
+
+    @Test(groups = {"green"})
+    public void testPaymentsInTheirCurrencies() throws Exception {
+        int[] codes = { UAH.getCode(), EUR.getCode(), USD.getCode(), RUB.getCode() };
+        FormatProcessor<long[]> processor = FormatProcessor.payments(formatter, payment -> payment[0],
+                payment -> (int) payment[1], EXECUTOR, BUFFER, BATCH);
+        Collector collector = new Collector(1, Long.MAX_VALUE);
+        processor.subscribe(collector);
+
+        Range<long[]> range = new Range<long[]>(1000, i -> new long[] { i * 100 + i % 100, codes[(int) (i % codes.length)] });
+        range.subscribe(processor);
+
+        List<String> words = collector.done.get(30, TimeUnit.SECONDS);
+        for (int i = 0; i < 1000; i++) assertEquals(words.get(i), formatter.format(i * 100 + i % 100, codes[i % 4]));
+        assertTrue(range.maxOutstanding <= BUFFER, range.maxOutstanding + " requested ahead");
+    }
+
+    @Test(groups = {"green"})
+    public void testSlowSubscriberBoundsUpstream() throws Exception {
+        FormatProcessor<Long> processor = FormatProcessor.amounts(formatter, EUR, EXECUTOR,
+                BUFFER, BATCH);
+        // requests one item at a time
+        Collector collector = new Collector(1, Long.MAX_VALUE);
+        processor.subscribe(collector);
+        Range<Long> range = new Range<Long>(10000, i -> i);
+        range.subscribe(processor);
+
+        assertEquals(collector.done.get(30, TimeUnit.SECONDS).size(), 10000);
+        assertTrue(range.maxOutstanding <= BUFFER, range.maxOutstanding + " requested ahead");
+        assertFalse(range.cancelled);
+    }
+
+    @Test(groups = {"green"})
+    public void testCancellationStopsUpstream() throws Exception {
+        FormatProcessor<Long> processor = FormatProcessor.amounts(formatter, EUR, EXECUTOR,
+                BUFFER, BATCH);
+        Collector collector = new Collector(1, 10);
+        processor.subscribe(collector);
+        Range<Long> range = new Range<Long>(Long.MAX_VALUE, i -> i);
+        range.subscribe(processor);
+
+        assertEquals(collector.done.get(30, TimeUnit.SECONDS).size(), 10);
+        assertTrue(range.cancelled);
+        assertTrue(range.emitted <= 10 + BUFFER, range.emitted + " emitted");
+    }
+
+    @Test(groups = {"green"})
+    public void testUnsupportedAmountFailsStream() throws Exception {
+        FormatProcessor<Long> processor = FormatProcessor.amounts(formatter, UAH, EXECUTOR,
+                BUFFER, BATCH);
+        Collector collector = new Collector(1, Long.MAX_VALUE);
+        processor.subscribe(collector);
+        Range<Long> range = new Range<Long>(1000, i -> i == 500 ? Long.MAX_VALUE : i);
+        range.subscribe(processor);
+
+        try {
+            collector.done.get(30, TimeUnit.SECONDS);
+            fail("Stream is completed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnsupportedOperationException, e.getCause().toString());
+        }
+        assertTrue(range.cancelled);
+        // batch with the unsupported amount is not emitted
+        assertTrue(collector.words.size() <= 500, collector.words.size() + " emitted");
+    }
+
+    @Test(groups = {"green"})
+    public void testSingleSubscriber() throws Exception {
+        FormatProcessor<Long> processor = FormatProcessor.amounts(formatter, UAH);
+        processor.subscribe(new Collector(1, Long.MAX_VALUE));
+        Collector second = new Collector(1, Long.MAX_VALUE);
+        processor.subscribe(second);
+
+        try {
+            second.done.get(30, TimeUnit.SECONDS);
+            fail("Second subscriber is accepted");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+        }
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnknownCurrency() {
+        AmountFormatter byName = formatter.withCurrencyMapping((CurrencyMapping<String>) name -> Currency.byName(name));
+        FormatProcessor.amounts(byName, "XXX");
+    }
+
+    /** Subscriber requesting items by the given number and cancelling after the limit. */
+    private static final class Collector implements Flow.Subscriber<String> {
+        final List<String> words = new ArrayList<String>();
+        final CompletableFuture<List<String>> done = new CompletableFuture<List<String>>();
+        private final int request;
+        private final long limit;
+        private Flow.Subscription subscription;
+        private int left;
+
+        Collector(int request, long limit) {
+            this.request = request;
+            this.limit = limit;
+        }
+
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            left = request;
+            subscription.request(request);
+        }
+
+        public void onNext(String item) {
+            words.add(item);
+            if (words.size() == limit) {
+                subscription.cancel();
+                done.complete(words);
+                return;
+            }
+            if (--left == 0) {
+                left = request;
+                subscription.request(request);
+            }
+        }
+
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        public void onComplete() {
+            done.complete(words);
+        }
+    }
+
+    /** Publisher of items 0..count-1 emitted synchronously on request, it records how far ahead it was asked. */
+    private static final class Range<T> implements Flow.Publisher<T>, Flow.Subscription {
+        private final long count;
+        private final LongFunction<T> item;
+        private Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong outstanding = new AtomicLong();
+        private boolean emitting, completed;
+        volatile long emitted, maxOutstanding;
+        volatile boolean cancelled;
+
+        Range(long count, LongFunction<T> item) {
+            this.count = count;
+            this.item = item;
+        }
+
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        public synchronized void request(long n) {
+            long ahead = outstanding.addAndGet(n);
+            if (ahead > maxOutstanding) maxOutstanding = ahead;
+            // nested requests only add demand, the outer loop emits it
+            if (emitting) return;
+            emitting = true;
+            while (outstanding.get() > 0 && emitted < count && !cancelled) {
+                outstanding.decrementAndGet();
+                subscriber.onNext(item.apply(emitted++));
+            }
+            emitting = false;
+            if (emitted == count && !cancelled && !completed) {
+                completed = true;
+                subscriber.onComplete();
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
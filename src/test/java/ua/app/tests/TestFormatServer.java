@@ -0,0 +1,167 @@
+package ua.app.tests;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.main.FormatServer;
+import ua.app.utilities.TestListener;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Format server should answer exactly what format gives, whether requests are merged into batches or not.
+ */
+@Listeners({TestListener.class})
+public class TestFormatServer extends TestBase {
+
+    private FormatServer server;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        // the same as Main serve does, otherwise every response waits for delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = new FormatServer(0, UAH, 2000);
+        server.start();
+    }
+
+    @AfterClass
+    public void stopServer() {
+        server.stop();
+    }
+
+    @Test(groups = {"green"})
+    public void testSingleAmount() throws IOException {
+        assertEquals(get("/format?amount=123456"), AmountInWords.format(123456, UAH));
+        assertEquals(get("/format?amount=-5&currency=840"), AmountInWords.format(-5, USD));
+        assertEquals(get("/format?amount=100&currency=EUR"), AmountInWords.format(100, EUR));
+    }
+
+    @Test(groups = {"green"})
+    public void testLines() throws IOException {
+        String response = post("100\n\n 2000;978 \n-3;840\n", "text/plain");
+
+        assertEquals(response, AmountInWords.format(100, UAH) + "\n" + AmountInWords.format(2000, EUR) + "\n"
+                + AmountInWords.format(-3, USD) + "\n");
+    }
+
+    @Test(groups = {"green"})
+    public void testJson() throws IOException {
+        String response = post("[1, {\"amount\": 2000, \"currency\": \"EUR\"}, {\"currency\": 840, \"amount\": -3}]",
+                "application/json");
+
+        assertEquals(response, "[\"" + AmountInWords.format(1, UAH) + "\",\"" + AmountInWords.format(2000, EUR)
+                + "\",\"" + AmountInWords.format(-3, USD) + "\"]");
+        assertEquals(post("[]", "application/json"), "[]");
+    }
+
+    @Test(groups = {"green"})
+    public void testConcurrentRequestsAreBatched() throws Exception {
+        long batchesBefore = server.batches();
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> responses = new ArrayList<Future<String>>();
+            for (int i = 0; i < 64; i++) {
+                final long amount = i * 2654435761L;
+                responses.add(clients.submit(() -> get("/format?amount=" + amount + "&currency=978")));
+            }
+            for (int i = 0; i < responses.size(); i++)
+                assertEquals(responses.get(i).get(), AmountInWords.format(i * 2654435761L, EUR));
+        } finally {
+            clients.shutdown();
+        }
+        assertTrue(server.batches() - batchesBefore < 64, server.toString());
+    }
+
+    @Test(groups = {"green"})
+    public void testMalformedRequests() throws IOException {
+        assertEquals(status("GET", "/format", null), 400);
+        assertEquals(status("GET", "/format?amount=ten", null), 400);
+        assertEquals(status("GET", "/format?amount=100&currency=1", null), 400);
+        assertEquals(status("GET", "/format?amount=999999999999999999", null), 400);
+        assertEquals(status("POST", "/format", "[1, {\"currency\": 840}]"), 400);
+        assertEquals(status("POST", "/format", "[1, 2"), 400);
+        assertEquals(status("DELETE", "/format", null), 405);
+        // bad request does not fail requests merged with it
+        assertEquals(get("/format?amount=7"), AmountInWords.format(7, UAH));
+    }
+
+    @Test(groups = {"green"})
+    public void testTooLongBody() throws IOException {
+        // declared length is rejected before the body is sent
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /format HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/plain\r\n"
+                    + "Content-Length: 100000000\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertEquals(in.readLine(), "HTTP/1.1 413 Request Entity Too Large");
+        }
+        assertEquals(get("/format?amount=7"), AmountInWords.format(7, UAH));
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = connect("GET", path);
+        assertEquals(connection.getResponseCode(), 200);
+        return read(connection.getInputStream());
+    }
+
+    private String post(String body, String contentType) throws IOException {
+        HttpURLConnection connection = connect("POST", "/format");
+        connection.setRequestProperty("Content-Type", contentType);
+        write(connection, body);
+        assertEquals(connection.getResponseCode(), 200);
+        return read(connection.getInputStream());
+    }
+
+    private int status(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = connect(method, path);
+        if (body != null) write(connection, body);
+        return connection.getResponseCode();
+    }
+
+    private HttpURLConnection connect(String method, String path) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static void write(HttpURLConnection connection, String body) throws IOException {
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) > 0; ) out.write(buffer, 0, read);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package ua.app.tests;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.main.Main;
+import ua.app.utilities.TestListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Format command of Main should write exactly what format gives, one amount per line, whatever the sizes
+ * of mapped windows and chunks are. Input is resolved by registered currency codes, so the test does not
+ * share the run with tests which reset currencies.
+ */
+@Listeners({TestListener.class})
+public class TestFormatTool extends TestBase {
+    private static final long WINDOW = 64L << 20;
+
+    private Path input, output;
+
+    @BeforeMethod
+    public void createFiles() throws IOException {
+        input = Files.createTempFile("amounts", ".txt");
+        output = Files.createTempFile("words", ".txt");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Test(groups = {"green"})
+    public void testTextInput() throws IOException {
+        write("123456789\n100;840\n\n 5 ; 978\r\n-700;643\n0");
+        run(false, 1 << 16, WINDOW);
+        assertOutput(format(123456789L, UAH), format(100L, USD), format(5L, EUR), format(-700L, RUB), format(0L, UAH));
+    }
+
+    @Test(groups = {"green"})
+    public void testBinaryInput() throws IOException {
+        long[] amounts = { 1, 99999999999999999L, -250, 100000 };
+        int[] codes = { 980, 840, 978, 643 };
+        writeRecords(amounts, codes);
+        run(true, 3, WINDOW);
+
+        String[] expected = new String[amounts.length];
+        for (int i = 0; i < amounts.length; i++) expected[i] = format(amounts[i], codes[i]);
+        assertOutput(expected);
+    }
+
+    @Test(groups = {"green"})
+    public void testLinesAcrossWindows() throws IOException {
+        Random random = new Random(5);
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            long amount = (random.nextLong() >>> 1) % 99999999999999999L >> random.nextInt(57);
+            text.append(amount).append(i % 2 == 0 ? ";840" : "").append(i % 7 == 0 ? "\r\n" : "\n");
+            expected.add(format(amount, i % 2 == 0 ? USD : UAH));
+        }
+        write(text.toString());
+        // windows of 64 bytes cut most lines, chunks of 3 lines leave tails of every window
+        run(false, 3, 64);
+        assertOutput(expected.toArray(new String[0]));
+    }
+
+    @Test(groups = {"green"})
+    public void testRecordsAcrossWindows() throws IOException {
+        long[] amounts = new long[100];
+        int[] codes = new int[amounts.length];
+        String[] expected = new String[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = i * 1234567L;
+            codes[i] = i % 2 == 0 ? 980 : 978;
+            expected[i] = format(amounts[i], codes[i]);
+        }
+        writeRecords(amounts, codes);
+        run(true, 7, 100);
+        assertOutput(expected);
+    }
+
+    @Test(groups = {"green"})
+    public void testUnknownCurrency() throws IOException {
+        write("100\n200;840\n300;999\n400\n");
+        try {
+            run(false, 1 << 16, WINDOW);
+            fail("Unknown currency is not rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Line 3 "), e.getMessage());
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testUnknownCurrencyOfRecord() throws IOException {
+        writeRecords(new long[] { 100, 200, 300 }, new int[] { 980, 999, 980 });
+        try {
+            run(true, 1 << 16, WINDOW);
+            fail("Unknown currency is not rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Record 2 "), e.getMessage());
+        }
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class},
+            expectedExceptionsMessageRegExp = "Line 2 has amount -999999999999999999 beyond .*")
+    public void testTooBigAmount() throws IOException {
+        write("100\n-999999999999999999;840\n");
+        run(false, 1, WINDOW);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class},
+            expectedExceptionsMessageRegExp = "Record 3 has amount .*")
+    public void testTooBigAmountOfRecord() throws IOException {
+        writeRecords(new long[] { 100, 200, Long.MAX_VALUE }, new int[] { 980, 980, 980 });
+        run(true, 1, WINDOW);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class},
+            expectedExceptionsMessageRegExp = ".*not multiple of 12")
+    public void testTruncatedBinaryInput() throws IOException {
+        Files.write(input, new byte[2 * 12 + 5]);
+        run(true, 1 << 16, WINDOW);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class},
+            expectedExceptionsMessageRegExp = "Line 2 is longer than 16 bytes")
+    public void testLineLongerThanWindow() throws IOException {
+        write("1\n12345678901234567\n");
+        run(false, 1 << 16, 16);
+    }
+
+    private void write(String text) throws IOException {
+        Files.write(input, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeRecords(long[] amounts, int[] codes) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(amounts.length * 12).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < amounts.length; i++) records.putLong(amounts[i]).putInt(codes[i]);
+        Files.write(input, records.array());
+    }
+
+    private void run(boolean binary, int chunk, long window) throws IOException {
+        PrintStream log = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+        new Main(input, output, binary, UAH, chunk, window, log).run();
+    }
+
+    private void assertOutput(String... expected) throws IOException {
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(lines.size(), expected.length);
+        for (int i = 0; i < expected.length; i++) assertEquals(lines.get(i), expected[i], "Line " + (i + 1));
+    }
+}
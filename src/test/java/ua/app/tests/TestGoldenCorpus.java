@@ -0,0 +1,86 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.GoldenCorpus;
+import ua.app.utilities.TestListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Formatting should give the same text as when the golden corpus was written, and corpus should notice any change.
+ * Tests verify every 64th block of the range, <code>Main golden verify</code> verifies all of them.
+ */
+@Listeners({TestListener.class})
+public class TestGoldenCorpus extends TestBase {
+    private static final Path CORPUS = Paths.get("src/test/resources/golden/amounts.golden");
+    private static final int SAMPLE = 64;
+
+    @Test(groups = {"green"})
+    public void testSameAsCorpus() throws IOException {
+        assertEquals(GoldenCorpus.verify(CORPUS, AmountFormatter.standard(), SAMPLE).toString(), "[]");
+    }
+
+    /** Euro with feminine cents differs only for fractions ending with one or two. */
+    @Test(groups = {"green"})
+    public void testChangedWordsAreFound() throws IOException {
+        Currency euro = new Currency(EUR.getCode(), EUR.getName()) {{
+            oneInteger = "евро";
+            twoIntegers = "евро";
+            fiveIntegers = "евро";
+            integerSex = Sex.MALE;
+            oneFraction = "евроцент";
+            twoFractions = "евроцента";
+            fiveFractions = "евроцентов";
+            fractionSex = Sex.FEMALE;
+        }};
+        AmountFormatter formatter = AmountFormatter.standard().withoutCurrency(EUR).withCurrency(euro);
+
+        List<GoldenCorpus.Mismatch> mismatches = GoldenCorpus.verify(CORPUS, formatter, SAMPLE);
+
+        assertFalse(mismatches.isEmpty());
+        for (GoldenCorpus.Mismatch mismatch : mismatches) assertEquals(mismatch.getCurrencyCode(), EUR.getCode());
+        assertTrue(mismatches.get(mismatches.size() - 1).isBoundaries());
+    }
+
+    @Test(groups = {"green"})
+    public void testWrittenCorpusIsVerified() throws IOException {
+        Path corpus = File.createTempFile("amounts", ".golden").toPath();
+        try {
+            GoldenCorpus.write(corpus, AmountFormatter.standard(), -100000, 100000);
+            assertTrue(GoldenCorpus.verify(corpus, AmountFormatter.standard()).isEmpty());
+        } finally {
+            corpus.toFile().delete();
+        }
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnregisteredCurrency() throws IOException {
+        GoldenCorpus.verify(CORPUS, AmountFormatter.standard().withoutCurrency(RUB), SAMPLE);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testNotCorpus() throws IOException {
+        GoldenCorpus.verify(Paths.get("src/test/resources/testData.xls"), AmountFormatter.standard());
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testRangeTooBig() throws IOException {
+        GoldenCorpus.write(Paths.get("target/unused.golden"), AmountFormatter.standard(), 0, Long.MAX_VALUE);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class},
+            expectedExceptionsMessageRegExp = ".*needs more than \\d+ hashes")
+    public void testTooManyHashes() throws IOException {
+        GoldenCorpus.write(Paths.get("target/unused.golden"), AmountFormatter.standard(),
+                -99999999999999999L, 99999999999999999L + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.utilities.TestListener;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Amounts should be formatted in the language of the locale given per call.
+ */
+@Listeners({TestListener.class})
+public class TestLanguagePacks extends TestBase {
+    private static final Locale UKRAINIAN = new Locale("uk");
+    private static final Locale RUSSIAN = new Locale("ru");
+
+    @Test(groups = {"green"})
+    public void testRussianIsDefault() {
+        for (long step = 0; step < 99999999999999999L / 3; step = step * 3 + 1001) {
+            long amount = step % 2 == 0 ? step : -step;
+            assertEquals(AmountInWords.format(amount, UAH, RUSSIAN), AmountInWords.format(amount, UAH));
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testUkrainian() {
+        assertEquals(AmountInWords.format(2100, UAH, UKRAINIAN), "двадцять одна гривня нуль копійок ");
+        assertEquals(AmountInWords.format(523404, USD, UKRAINIAN), "п'ять тисяч двісті тридцять чотири долари чотири центи ");
+        assertEquals(AmountInWords.format(200000000, EUR, UKRAINIAN), "два мільйони євро нуль євроцентів ");
+    }
+
+    @Test(groups = {"green"})
+    public void testEnglish() {
+        assertEquals(AmountInWords.format(101, USD, Locale.ENGLISH), "one dollar one cent ");
+        assertEquals(AmountInWords.format(100100, USD, Locale.ENGLISH), "one thousand one dollars zero cents ");
+        assertEquals(AmountInWords.format(4521, EUR, Locale.US), "forty-five euros twenty-one cents ");
+        assertEquals(AmountInWords.format(new BigDecimal("3000000000000000000"), RUB, Locale.UK),
+                "three quintillion rubles zero kopecks ");
+    }
+
+    @Test(groups = {"green"})
+    public void testNotTranslatedCurrencyKeepsItsMorphology() {
+        Currency yen = new AmountInWords.Currency(392, "JPY") {{
+            oneInteger = "иена";
+            twoIntegers = "иены";
+            fiveIntegers = "иен";
+            integerSex = Sex.FEMALE;
+            oneFraction = "сэн";
+            twoFractions = "сэна";
+            fiveFractions = "сэн";
+            fractionSex = Sex.MALE;
+        }};
+
+        assertEquals(AmountInWords.format(200, yen, UKRAINIAN), "дві иены нуль сэн ");
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnknownLanguage() {
+        AmountInWords.format(100, UAH, Locale.JAPANESE);
+    }
+}
@@ -0,0 +1,92 @@
+package ua.app.tests;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.utilities.TestListener;
+
+import java.util.Locale;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Parsing amounts in words should give back what format was given and reject anything format does not produce.
+ */
+@Listeners({TestListener.class})
+public class TestParse extends TestBase {
+
+    @Test(groups = {"green"})
+    public void testParseFormatted() {
+        for (Currency currency : new Currency[] { UAH, EUR, USD, RUB })
+            for (long amount = 0; amount < 99999999999999999L / 7; amount = amount * 7 + 13)
+                assertEquals(AmountInWords.parse(AmountInWords.format(amount, currency), currency), amount);
+    }
+
+    @Test(groups = {"green"})
+    public void testParseFormattedInLanguages() {
+        for (Locale locale : new Locale[] { new Locale("uk"), Locale.ENGLISH })
+            for (long amount = 0; amount < 99999999999999999L / 7; amount = amount * 7 + 13)
+                assertEquals(AmountInWords.parse(AmountInWords.format(amount, USD, locale), USD, locale), amount);
+    }
+
+    @Test(groups = {"green"})
+    public void testCaseAndSpacesAreIgnored() {
+        assertEquals(AmountInWords.parse("  Двадцать  одна ГРИВНА\tноль копеек\n", UAH), 2100L);
+    }
+
+    @Test(groups = {"green"})
+    public void testThreeFractionDigits() {
+        Currency dinar = new AmountInWords.Currency(414, "KWD") {{
+            oneInteger = "динар";
+            twoIntegers = "динара";
+            fiveIntegers = "динаров";
+            integerSex = Sex.MALE;
+            oneFraction = "филс";
+            twoFractions = "филса";
+            fiveFractions = "филсов";
+            fractionSex = Sex.MALE;
+            fractionDigits = 3;
+        }};
+
+        assertEquals(AmountInWords.parse("двадцать один динар сто двадцать пять филсов", dinar), 21125L);
+    }
+
+    @Test(groups = {"green"})
+    public void testMatches() {
+        assertTrue(AmountInWords.matches("одна тысяча два доллара три цента", 100203, USD));
+        assertFalse(AmountInWords.matches("одна тысяча два доллара три цента", 100204, USD));
+        assertFalse(AmountInWords.matches("одна тысяча два доллара три", 100203, USD));
+    }
+
+    @DataProvider(name = "malformed")
+    public static Object[][] malformed() {
+        return new Object[][] {
+                { "" },
+                { "гривен" },
+                { "ноль гривен" },
+                { "ноль гривен копеек" },
+                { "двадцать один гривна ноль копеек" },
+                { "одна гривен ноль копеек" },
+                { "один тысяча гривен ноль копеек" },
+                { "двадцать двадцать гривен ноль копеек" },
+                { "сто двести гривен ноль копеек" },
+                { "одна тысяча одна тысяча гривен ноль копеек" },
+                { "ноль тысяч гривен ноль копеек" },
+                { "ноль гривен сто копеек" },
+                { "ноль гривен ноль копеек ноль" },
+                { "one hryvnia zero kopiykas" },
+        };
+    }
+
+    @Test(groups = {"green"}, dataProvider = "malformed", expectedExceptions = {IllegalArgumentException.class})
+    public void testMalformedIsRejected(String words) {
+        AmountInWords.parse(words, UAH);
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testEnglishCompoundIsRequired() {
+        AmountInWords.parse("twenty one dollars zero cents", USD, Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,75 @@
+package ua.app.tests;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.businessObject.ResultCache;
+import ua.app.utilities.TestListener;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Cached amounts should be the same as formatted ones and should follow currency changes.
+ * Other tests may format amounts concurrently, so statistics are checked by lower bounds only.
+ */
+@Listeners({TestListener.class})
+public class TestResultCache extends TestBase {
+
+    @AfterMethod(alwaysRun = true)
+    public void disableCache() {
+        AmountInWords.setResultCache(null);
+    }
+
+    @Test(groups = {"green"})
+    public void testRepeatedAmountIsHit() {
+        String expected = AmountInWords.format(123456789L, USD);
+        ResultCache cache = new ResultCache(1024, ResultCache.EvictionPolicy.LRU);
+        AmountInWords.setResultCache(cache);
+
+        assertEquals(AmountInWords.format(123456789L, USD), expected);
+        assertEquals(AmountInWords.format(123456789L, USD), expected);
+        assertTrue(cache.hits() >= 1, cache.toString());
+        assertTrue(cache.misses() >= 1, cache.toString());
+    }
+
+    @Test(groups = {"green"})
+    public void testCacheIsBounded() {
+        ResultCache cache = new ResultCache(8, ResultCache.EvictionPolicy.CLOCK);
+        AmountInWords.setResultCache(cache);
+
+        for (long amount = 0; amount < 100; amount++)
+            assertEquals(AmountInWords.format(amount, EUR), AmountInWords.format(amount, EUR));
+
+        assertTrue(cache.size() <= 8, cache.toString());
+        assertTrue(cache.evictions() >= 92, cache.toString());
+    }
+
+    @Test(groups = {"green"})
+    public void testCurrencyChangeInvalidatesEntries() {
+        AmountInWords.setResultCache(new ResultCache(1024, ResultCache.EvictionPolicy.LRU));
+        AmountInWords.addCurrency(yen("иена"));
+        String before = AmountInWords.format(100, Currency.byCode(392));
+
+        AmountInWords.removeCurrency(Currency.byCode(392));
+        AmountInWords.addCurrency(yen("йена"));
+        String after = AmountInWords.format(100, Currency.byCode(392));
+
+        assertEquals(before, "одна иена ноль сэн ");
+        assertEquals(after, "одна йена ноль сэн ");
+    }
+
+    private static Currency yen(final String one) {
+        return new AmountInWords.Currency(392, "JPY") {{
+            oneInteger = one;
+            twoIntegers = "иены";
+            fiveIntegers = "иен";
+            integerSex = AmountInWords.Sex.FEMALE;
+            oneFraction = "сэн";
+            twoFractions = "сэн";
+            fiveFractions = "сэн";
+            fractionSex = AmountInWords.Sex.MALE;
+        }};
+    }
+}
@@ -0,0 +1,97 @@
+package ua.app.tests;
+
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountFormatter;
+import ua.app.businessObject.SequentialFormatter;
+import ua.app.utilities.TestListener;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static ua.app.businessObject.AmountInWords.*;
+
+/**
+ * Sequential formatter should give exactly what format gives, whatever the previous amount was.
+ * Tests use their own formatters, so they run in parallel with any other test.
+ */
+@Listeners({TestListener.class})
+public class TestSequentialFormatter extends TestBase {
+    private static final long MAX = 99999999999999999L;
+
+    private final AmountFormatter formatter = AmountFormatter.standard();
+
+    @Test(groups = {"green"})
+    public void testIncrementingAmounts() {
+        SequentialFormatter sequential = formatter.sequential(UAH);
+        // crosses thousands, millions and billions of hundredths
+        for (long start : new long[] { 0, 99990000, 99999990000L, 100099990000L, MAX - 200000 })
+            for (long amount = start; amount < start + 200000; amount += 7)
+                assertEquals(sequential.format(amount), formatter.format(amount, UAH));
+    }
+
+    @Test(groups = {"green"})
+    public void testSortedAmounts() {
+        long[] amounts = amounts(new Random(42), 100000);
+        Arrays.sort(amounts);
+        assertSameAsFormat(formatter.sequential(USD), amounts, USD);
+    }
+
+    @Test(groups = {"green"})
+    public void testRandomAmounts() {
+        assertSameAsFormat(formatter.sequential(EUR), amounts(new Random(7), 100000), EUR);
+    }
+
+    @Test(groups = {"green"})
+    public void testNegativeAndZeroAmounts() {
+        long[] amounts = { 0, -1, -100, -100000, -100000, 100000, 0, -MAX, MAX, 1, 100, 100000000, 0, 100000000 };
+        assertSameAsFormat(formatter.sequential(RUB), amounts, RUB);
+    }
+
+    @Test(groups = {"green"})
+    public void testOtherLanguages() {
+        long[] amounts = amounts(new Random(3), 10000);
+        Arrays.sort(amounts);
+        for (Locale locale : new Locale[] { Locale.ENGLISH, new Locale("uk") }) {
+            SequentialFormatter sequential = formatter.sequential(UAH, locale);
+            for (long amount : amounts) assertEquals(sequential.format(amount), formatter.format(amount, UAH, locale));
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testOtherFractionDigits() {
+        Currency yen = new Currency(392, "JPY") {{
+            oneInteger = "иена";
+            twoIntegers = "иены";
+            fiveIntegers = "иен";
+            integerSex = Sex.FEMALE;
+            oneFraction = "сэн";
+            twoFractions = "сэна";
+            fiveFractions = "сэнов";
+            fractionSex = Sex.MALE;
+            fractionDigits = 0;
+        }};
+        AmountFormatter withYen = formatter.withCurrency(yen);
+        SequentialFormatter sequential = withYen.sequential(withYen.byCode(392));
+        for (long amount = 999000; amount < 1001000; amount++)
+            assertEquals(sequential.format(amount), withYen.format(amount, 392));
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {UnsupportedOperationException.class})
+    public void testTooBigAmount() {
+        formatter.sequential(UAH).format(MAX + 1);
+    }
+
+    private void assertSameAsFormat(SequentialFormatter sequential, long[] amounts, Currency currency) {
+        for (long amount : amounts) assertEquals(sequential.format(amount), formatter.format(amount, currency));
+    }
+
+    /** Amounts of any magnitude, from cents to the greatest one supported. */
+    private static long[] amounts(Random random, int count) {
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) amounts[i] = (random.nextLong() >>> 1) % MAX >> random.nextInt(57);
+        return amounts;
+    }
+}
@@ -0,0 +1,148 @@
+package ua.app.tests;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import ua.app.base.TestBase;
+import ua.app.businessObject.AmountInWords;
+import ua.app.utilities.SpreadsheetReader;
+import ua.app.utilities.TestListener;
+import ua.app.utilities.WorkbookCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streamed rows should be the same as rows of workbooks loaded at once, however big the sheet is.
+ */
+@Listeners({TestListener.class})
+public class TestSpreadsheetReader extends TestBase {
+    private static final String TEST_DATA = "src/test/resources/testData.xls";
+
+    // more rows than .xls sheet can hold
+    private static final int XLSX_ROWS = 70000;
+    private static final int XLS_ROWS = 20000;
+
+    private File xlsx;
+    private File xls;
+
+    @BeforeClass(alwaysRun = true)
+    public void writeWorkbooks() throws IOException {
+        xlsx = write(new SXSSFWorkbook(100), XLSX_ROWS, ".xlsx");
+        xls = write(new HSSFWorkbook(), XLS_ROWS, ".xls");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkbooks() {
+        if (xlsx != null) xlsx.delete();
+        if (xls != null) xls.delete();
+    }
+
+    @Test(dataProvider = "streamForAmount", groups = {"green"})
+    public void testFormatPlus(long number, String expected) {
+        assertEquals(AmountInWords.format(number, AmountInWords.USD), expected);
+    }
+
+    @Test(dataProvider = "streamForCurrencies", groups = {"green"})
+    public void testByCode(int currencyNum, int code) {
+        assertEquals(AmountInWords.Currency.byCode(code).getCode(), code);
+    }
+
+    @Test(groups = {"green"})
+    public void testSameRowsAsLoadedWorkbook() throws IOException {
+        for (String nameSheet : sheets(TEST_DATA)) {
+            assertTrue(Arrays.deepEquals(rows(SpreadsheetReader.amounts(TEST_DATA, nameSheet)),
+                    WorkbookCache.amounts(TEST_DATA, nameSheet)), nameSheet);
+            assertTrue(Arrays.deepEquals(rows(SpreadsheetReader.currencies(TEST_DATA, nameSheet)),
+                    WorkbookCache.currencies(TEST_DATA, nameSheet)), nameSheet);
+        }
+    }
+
+    @Test(groups = {"green"})
+    public void testLargeXlsx() {
+        assertRows(SpreadsheetReader.amounts(xlsx.getPath(), "amounts"), XLSX_ROWS);
+    }
+
+    @Test(groups = {"green"})
+    public void testLargeXls() {
+        assertRows(SpreadsheetReader.amounts(xls.getPath(), "amounts"), XLS_ROWS);
+    }
+
+    @Test(groups = {"green"})
+    public void testClosedAfterLastRow() {
+        SpreadsheetReader reader = SpreadsheetReader.amounts(TEST_DATA, "testFormatPlus");
+        reader.next();
+        assertFalse(reader.hasNext());
+        assertFalse(reader.hasNext());
+        reader.close();
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnknownSheet() {
+        SpreadsheetReader.amounts(TEST_DATA, "noSuchSheet");
+    }
+
+    @Test(groups = {"green"}, expectedExceptions = {IllegalArgumentException.class})
+    public void testUnknownSheetXlsx() {
+        SpreadsheetReader.amounts(xlsx.getPath(), "noSuchSheet");
+    }
+
+    private static void assertRows(SpreadsheetReader reader, int expected) {
+        int rows = 0;
+        while (reader.hasNext()) {
+            Object[] row = reader.next();
+            assertEquals(row.length, 3);
+            assertEquals(row[0], rows * 7L);
+            assertEquals(row[1], "row " + rows);
+            assertEquals(row[2], rows % 2 == 0 ? (Object) (rows + 0.5) : null);
+            rows++;
+        }
+        assertEquals(rows, expected);
+    }
+
+    /** Rows of amount, text and fraction, the fraction is left blank in odd rows. */
+    private static File write(Workbook workbook, int rows, String suffix) throws IOException {
+        Sheet sheet = workbook.createSheet("amounts");
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue(i * 7L);
+            row.createCell(1).setCellValue("row " + i);
+            if (i % 2 == 0) row.createCell(2).setCellValue(i + 0.5);
+        }
+
+        File file = File.createTempFile("amounts", suffix);
+        try (OutputStream output = new FileOutputStream(file)) {
+            workbook.write(output);
+        }
+        if (workbook instanceof SXSSFWorkbook) ((SXSSFWorkbook) workbook).dispose();
+        return file;
+    }
+
+    private static List<String> sheets(String filePath) throws IOException {
+        List<String> names = new ArrayList<String>();
+        try (InputStream input = new FileInputStream(filePath)) {
+            HSSFWorkbook workbook = new HSSFWorkbook(input);
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) names.add(workbook.getSheetName(i));
+        }
+        return names;
+    }
+
+    private static Object[][] rows(SpreadsheetReader reader) {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        while (reader.hasNext()) rows.add(reader.next());
+        return rows.toArray(new Object[rows.size()][]);
+    }
+}
@@ -0,0 +1,184 @@
+package ua.app.tests;
+
+import org.testng.ISuite;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SuiteRunner;
+import org.testng.TestRunner;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+import org.testng.internal.Configuration;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import ua.app.base.TestBase;
+import ua.app.utilities.TestListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timing reports of TestListener are checked on synthetic results of suites of their own, durations are set
+ * by moving the start of every result back. Reports go to a temporary directory given by the system property,
+ * so the tests do not share the run with other tests which finish.
+ */
+@Listeners({TestListener.class})
+public class TestTimingReports extends TestBase {
+    private static final String DIR_PROPERTY = "test.timings.dir";
+
+    private Path dir;
+    private String previousDir;
+
+    @BeforeMethod
+    public void redirectReports() throws IOException {
+        dir = Files.createTempDirectory("timings");
+        previousDir = System.setProperty(DIR_PROPERTY, dir.toString());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreReports() throws IOException {
+        if (previousDir == null) System.clearProperty(DIR_PROPERTY);
+        else System.setProperty(DIR_PROPERTY, previousDir);
+        for (File file : dir.toFile().listFiles()) Files.delete(file.toPath());
+        Files.delete(dir);
+    }
+
+    @Test(groups = {"green"})
+    public void testPercentiles() throws IOException {
+        ITestContext context = context("Percentiles suite", "Percentiles");
+        TestListener listener = new TestListener();
+        // rows of 20..400 ms in mixed order, the row of 140 ms fails
+        for (int i = 0; i < 20; i++) {
+            long millis = (i * 7 % 20 + 1) * 20;
+            ITestResult result = start(listener, context, "row", millis);
+            if (millis == 140) listener.onTestFailure(result);
+            else listener.onTestSuccess(result);
+        }
+        listener.onFinish(context);
+
+        List<String> csv = read("Percentiles.csv");
+        assertEquals(csv.size(), 2, csv.toString());
+        String[] row = csv.get(1).split(",");
+        assertEquals(row[0], "TestTimingReports.row");
+        assertEquals(row[1], "20");
+        assertEquals(row[2], "19");
+        assertEquals(row[3], "1");
+        assertEquals(row[4], "0");
+        assertMillis(row[5], 200);
+        assertMillis(row[6], 380);
+        assertMillis(row[7], 400);
+
+        String json = String.join("\n", read("Percentiles.json"));
+        assertTrue(json.contains("\"threads\": 1,"), json);
+        assertTrue(json.contains("\"invocations\": 20, \"passed\": 19, \"failed\": 1, \"skipped\": 0"), json);
+    }
+
+    @Test(groups = {"green"})
+    public void testEscaping() throws IOException {
+        ITestContext context = context("Escaping suite", "Escaping");
+        TestListener listener = new TestListener();
+        listener.onTestSuccess(start(listener, context, "odd, \"quoted\"", 20));
+        listener.onTestSkipped(result(context, "plain"));
+        listener.onFinish(context);
+
+        List<String> csv = read("Escaping.csv");
+        assertEquals(csv.size(), 3, csv.toString());
+        assertTrue(csv.get(1).startsWith("\"TestTimingReports.odd, \"\"quoted\"\"\",1,1,0,0,"), csv.get(1));
+        assertTrue(csv.get(2).startsWith("TestTimingReports.plain,1,0,0,1,0.000,"), csv.get(2));
+
+        String json = String.join("\n", read("Escaping.json"));
+        assertTrue(json.contains("{\"test\": \"TestTimingReports.odd, \\\"quoted\\\"\", \"invocations\": 1"), json);
+    }
+
+    @Test(groups = {"green"})
+    public void testReportsAreWrittenOnce() throws IOException {
+        ITestContext context = context("Once suite", "Once");
+        TestListener first = new TestListener(), second = new TestListener();
+        first.onTestSuccess(start(first, context, "row", 20));
+        first.onFinish(context);
+        first.onFinish(context.getSuite());
+        // the suite report has rows of its own suite only
+        assertEquals(read("suite.csv"), read("Once.csv"));
+
+        // another listener instance gets the same events, reports are already there
+        for (File file : dir.toFile().listFiles()) Files.delete(file.toPath());
+        second.onFinish(context);
+        second.onFinish(context.getSuite());
+        assertEquals(dir.toFile().list().length, 0);
+    }
+
+    private List<String> read(String file) throws IOException {
+        return Files.readAllLines(dir.resolve(file), StandardCharsets.UTF_8);
+    }
+
+    private static void assertMillis(String actual, long expected) {
+        double millis = Double.parseDouble(actual);
+        // the listener measures rows itself, so they are a bit longer than their moved starts
+        assertTrue(millis >= expected && millis < expected + 20, actual + " is not about " + expected);
+    }
+
+    /** Result whose start the listener takes now, moved back by the given duration. */
+    private static ITestResult start(TestListener listener, ITestContext context, String method, long millis) {
+        ITestResult result = result(context, method);
+        listener.onTestStart(result);
+        for (String name : result.getAttributeNames())
+            result.setAttribute(name, (Long) result.getAttribute(name) - millis * 1000000);
+        return result;
+    }
+
+    /** Context of the test which is never run, so nothing but the names is set up. */
+    private ITestContext context(String suiteName, String testName) {
+        XmlSuite xmlSuite = new XmlSuite();
+        xmlSuite.setName(suiteName);
+        XmlTest xmlTest = new XmlTest(xmlSuite);
+        xmlTest.setName(testName);
+        ISuite suite = new SuiteRunner(new Configuration(), xmlSuite, dir.toString());
+        return new TestRunner(new Configuration(), suite, xmlTest, false, null);
+    }
+
+    private static ITestResult result(ITestContext context, String methodName) {
+        Map<String, Object> method = new HashMap<String, Object>();
+        method.put("getRealClass", TestTimingReports.class);
+        method.put("getMethodName", methodName);
+        Map<String, Object> result = new HashMap<String, Object>();
+        result.put("getTestContext", context);
+        result.put("getMethod", stub(ITestNGMethod.class, method));
+        result.put("getParameters", new Object[0]);
+        Map<String, Object> attributes = Collections.synchronizedMap(new HashMap<String, Object>());
+        return (ITestResult) Proxy.newProxyInstance(ITestResult.class.getClassLoader(), new Class<?>[] { ITestResult.class },
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "setAttribute": return attributes.put((String) args[0], args[1]);
+                        case "getAttribute": return attributes.get(args[0]);
+                        case "getAttributeNames": return new HashSet<String>(attributes.keySet());
+                        default: return answer(proxy, m.getName(), args, result);
+                    }
+                });
+    }
+
+    /** Implementation of the interface which answers methods by name, other methods return null. */
+    private static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, m, args) -> answer(proxy, m.getName(), args, answers)));
+    }
+
+    private static Object answer(Object proxy, String method, Object[] args, Map<String, Object> answers) {
+        switch (method) {
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            case "toString": return "Stub" + answers.keySet();
+            default: return answers.get(method);
+        }
+    }
+}
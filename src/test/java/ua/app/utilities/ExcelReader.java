@@ -1,67 +1,30 @@
 package ua.app.utilities;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ExcelReader {
 
-    private static XSSFSheet ExcelWSheet;
-    private static XSSFWorkbook ExcelWBook;
-    private static XSSFCell Cell;
-    private static XSSFRow Row;
+    /**
+     * Text of the second and the third columns of the sheet below its header row, blank cells are empty strings.
+     * Rows are streamed by {@link SpreadsheetReader}, so readers in different threads share nothing.
+     */
+    public static Object[][] readFile(String FilePath, String SheetName) {
+        int startCol = 1;
+        int totalCols = 2;
+        List<String[]> tabArray = new ArrayList<String[]>();
 
-    public static Object[][] readFile(String FilePath, String SheetName) throws Exception {
-        String[][] tabArray = null;
-
-        try {
-            FileInputStream ExcelFile = new FileInputStream(FilePath);
-            // Access the required test data sheet
-            ExcelWBook = new XSSFWorkbook(ExcelFile);
-            ExcelWSheet = ExcelWBook.getSheet(SheetName);
-            int startRow = 1;
-            int startCol = 1;
-            int ci, cj;
-            int totalRows = ExcelWSheet.getLastRowNum();
-            // you can write a function as well to get Column count
-            int totalCols = 2;
-            tabArray = new String[totalRows][totalCols];
-            ci = 0;
-            for (int i = startRow; i <= totalRows; i++, ci++) {
-                cj = 0;
-                for (int j = startCol; j <= totalCols; j++, cj++) {
-                    tabArray[ci][cj] = getCellData(i, j);
-                    System.out.println(tabArray[ci][cj]);
-                }
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("Could not read the Excel sheet");
-            e.printStackTrace();
-        } catch (IOException e) {
-            System.out.println("Could not read the Excel sheet");
-            e.printStackTrace();
-        }
-        return (tabArray);
-    }
-
-    public static String getCellData(int RowNum, int ColNum) throws Exception {
-
-        try {
-            Cell = ExcelWSheet.getRow(RowNum).getCell(ColNum);
-            int dataType = Cell.getCellType();
-            if (dataType == 3) {
-                return "";
-            } else {
-                String CellData = Cell.getStringCellValue();
-                return CellData;
+        SpreadsheetReader reader = SpreadsheetReader.amounts(FilePath, SheetName);
+        if (reader.hasNext()) reader.next();
+        while (reader.hasNext()) {
+            Object[] row = reader.next();
+            String[] data = new String[totalCols];
+            for (int j = 0; j < totalCols; j++) {
+                Object cell = startCol + j < row.length ? row[startCol + j] : null;
+                data[j] = cell == null ? "" : String.valueOf(cell);
             }
-        }catch (Exception e) {
-            System.out.println(e.getMessage());
-            throw (e);
+            tabArray.add(data);
         }
+        return tabArray.toArray(new String[tabArray.size()][]);
     }
 }
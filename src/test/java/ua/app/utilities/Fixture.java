@@ -0,0 +1,170 @@
+package ua.app.utilities;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Test data compiled from a workbook into binary fixture by {@link FixtureCompiler}, so data providers do not load
+ * Apache POI nor parse the workbook.
+ *
+ * Fixture of <code>testData.xls</code> is <code>testData.xls.fixture</code> in <code>target/fixtures</code>
+ * (<code>-Dtest.fixtures.dir</code>). Fixture missing or older than its workbook is compiled when it is opened,
+ * only then POI is loaded, so the build runs no step of its own for fixtures. Fixture is memory-mapped once for
+ * the suite, rows are decoded from it as data providers take them. Cells are the same as
+ * {@link SpreadsheetReader} gives.
+ *
+ * Fixture is big-endian: magic, version, number of sheets, then for every sheet its name, offset of its rows
+ * from the end of the index, number of rows and columns. Every cell is a tag byte followed by
+ * long, double, or length and UTF-8 bytes of text.
+ */
+public final class Fixture {
+    static final int MAGIC = 0x41495746;
+    static final int VERSION = 1;
+
+    static final byte NULL = 0, LONG = 1, DOUBLE = 2, TEXT = 3, FALSE = 4, TRUE = 5;
+
+    private static final ConcurrentMap<String, Fixture> FIXTURES = new ConcurrentHashMap<String, Fixture>();
+
+    private final ByteBuffer rows;
+    /** Offset, number of rows and columns of every sheet. */
+    private final Map<String, int[]> sheets;
+
+    private Fixture(ByteBuffer rows, Map<String, int[]> sheets) {
+        this.rows = rows;
+        this.sheets = sheets;
+    }
+
+    /**
+     * Rows of the sheet with whole numbers as {@link Long}.
+     * @throws IllegalArgumentException when the workbook has no such sheet
+     * @throws IllegalStateException when the fixture could not be read or compiled
+     */
+    public static Iterator<Object[]> amounts(String filePath, String nameSheet) {
+        return open(filePath).rows(filePath, nameSheet, false);
+    }
+
+    /**
+     * Rows of the sheet with whole numbers as {@link Integer}.
+     * @throws IllegalArgumentException when the workbook has no such sheet
+     * @throws IllegalStateException when the fixture could not be read or compiled
+     */
+    public static Iterator<Object[]> currencies(String filePath, String nameSheet) {
+        return open(filePath).rows(filePath, nameSheet, true);
+    }
+
+    /** Fixture of the workbook in the directory of fixtures. */
+    public static Path path(Path workbook) {
+        return Paths.get(System.getProperty("test.fixtures.dir", "target/fixtures"))
+                .resolve(workbook.getFileName() + ".fixture");
+    }
+
+    /** Fixture is missing or the workbook was changed after it was compiled. */
+    public static boolean isStale(Path workbook, Path fixture) throws IOException {
+        return !Files.exists(fixture)
+                || Files.getLastModifiedTime(fixture).compareTo(Files.getLastModifiedTime(workbook)) < 0;
+    }
+
+    private static Fixture open(String filePath) {
+        Path workbook = Paths.get(filePath).toAbsolutePath().normalize();
+        Fixture fixture = FIXTURES.get(workbook.toString());
+        if (fixture == null) {
+            fixture = FIXTURES.computeIfAbsent(workbook.toString(), key -> load(workbook));
+        }
+        return fixture;
+    }
+
+    private static Fixture load(Path workbook) {
+        Path path = path(workbook);
+        try {
+            if (isStale(workbook, path)) FixtureCompiler.compile(workbook, path);
+            Fixture fixture = map(path);
+            if (fixture != null) return fixture;
+
+            // written by another version
+            FixtureCompiler.compile(workbook, path);
+            return map(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Fixture " + path + " could not be read", e);
+        }
+    }
+
+    /** @return null when the file is not a fixture of this version */
+    private static Fixture map(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+
+        int count = buffer.getInt();
+        Map<String, int[]> sheets = new HashMap<String, int[]>();
+        for (int i = 0; i < count; i++) {
+            String name = text(buffer, buffer.getShort());
+            sheets.put(name, new int[] { buffer.getInt(), buffer.getInt(), buffer.getInt() });
+        }
+        return new Fixture(buffer.slice(), sheets);
+    }
+
+    private Iterator<Object[]> rows(String filePath, String nameSheet, final boolean integers) {
+        int[] sheet = sheets.get(nameSheet);
+        if (sheet == null) throw new IllegalArgumentException("No sheet " + nameSheet + " in " + filePath);
+
+        // every provider reads its own view of the mapped fixture
+        final ByteBuffer buffer = rows.duplicate();
+        buffer.position(sheet[0]);
+        final int count = sheet[1], columns = sheet[2];
+        return new Iterator<Object[]>() {
+            private int row;
+
+            public boolean hasNext() {
+                return row < count;
+            }
+
+            public Object[] next() {
+                if (row == count) throw new NoSuchElementException();
+                Object[] cells = new Object[columns];
+                for (int i = 0; i < columns; i++) cells[i] = cell(buffer, integers);
+                row++;
+                return cells;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static Object cell(ByteBuffer buffer, boolean integers) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL: return null;
+            case LONG:
+                long value = buffer.getLong();
+                // through double as XLSReader casts cells, numbers too big for int are clamped, not wrapped
+                return integers ? (Object) (int) (double) value : (Object) value;
+            case DOUBLE: return buffer.getDouble();
+            case TEXT: return text(buffer, buffer.getInt());
+            case FALSE: return Boolean.FALSE;
+            case TRUE: return Boolean.TRUE;
+            default: throw new IllegalStateException("Fixture is broken, unknown cell " + tag);
+        }
+    }
+
+    private static String text(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
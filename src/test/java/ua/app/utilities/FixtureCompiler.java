@@ -0,0 +1,93 @@
+package ua.app.utilities;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Compiles workbooks of test data into {@link Fixture} files when a fixture is opened for the first time.
+ * Fixtures newer than their workbooks are left as they are, so Apache POI is loaded only when a workbook
+ * was changed.
+ */
+public final class FixtureCompiler {
+
+    private FixtureCompiler() {}
+
+    /** @return true when the fixture was compiled, false when it is newer than the workbook */
+    public static boolean compileIfStale(Path workbook, Path fixture) throws IOException {
+        if (!Fixture.isStale(workbook, fixture)) return false;
+        compile(workbook, fixture);
+        return true;
+    }
+
+    /**
+     * Compile every sheet of the workbook. Fixture is written next to its place and moved there,
+     * so other test runs never see it half written.
+     */
+    public static void compile(Path workbook, Path fixture) throws IOException {
+        String filePath = workbook.toString();
+        List<String> names = SpreadsheetReader.sheetNames(filePath);
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        DataOutputStream rowsOut = new DataOutputStream(rows);
+
+        indexOut.writeInt(Fixture.MAGIC);
+        indexOut.writeInt(Fixture.VERSION);
+        indexOut.writeInt(names.size());
+        for (String name : names) {
+            int offset = rowsOut.size(), count = 0, columns = 0;
+            SpreadsheetReader reader = SpreadsheetReader.amounts(filePath, name);
+            while (reader.hasNext()) {
+                Object[] row = reader.next();
+                columns = row.length;
+                for (Object cell : row) writeCell(rowsOut, cell);
+                count++;
+            }
+
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            indexOut.writeShort(bytes.length);
+            indexOut.write(bytes);
+            indexOut.writeInt(offset);
+            indexOut.writeInt(count);
+            indexOut.writeInt(columns);
+        }
+
+        Path directory = fixture.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path written = Files.createTempFile(directory, fixture.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(written)) {
+                index.writeTo(out);
+                rows.writeTo(out);
+            }
+            Files.move(written, fixture, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(written);
+        }
+    }
+
+    private static void writeCell(DataOutputStream out, Object cell) throws IOException {
+        if (cell == null) out.writeByte(Fixture.NULL);
+        else if (cell instanceof Long) {
+            out.writeByte(Fixture.LONG);
+            out.writeLong((Long) cell);
+        } else if (cell instanceof Double) {
+            out.writeByte(Fixture.DOUBLE);
+            out.writeDouble((Double) cell);
+        } else if (cell instanceof Boolean) out.writeByte((Boolean) cell ? Fixture.TRUE : Fixture.FALSE);
+        else {
+            byte[] bytes = cell.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(Fixture.TEXT);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
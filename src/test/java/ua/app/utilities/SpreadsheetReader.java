@@ -0,0 +1,461 @@
+package ua.app.utilities;
+
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Rows of a sheet of .xls or .xlsx workbook read one at a time, for data providers returning
+ * <code>Iterator&lt;Object[]&gt;</code> over sheets too big to be loaded at once.
+ *
+ * Cells are pulled from the file as TestNG asks for rows: .xls records are read by {@link RecordFactoryInputStream}
+ * from the workbook stream, .xlsx sheet is read by StAX. Only the row being built is held in memory besides
+ * shared strings of the workbook, so heap does not grow with number of rows.
+ *
+ * Rows are as wide as the first row, rows without cells are skipped. Numbers are {@link Long}
+ * ({@link Integer} for {@link #currencies(String, String)}) when whole, {@link Double} otherwise, text is
+ * {@link String}, booleans are {@link Boolean}, formulas give their cached result, other cells are null.
+ * The file is closed when the last row is read or by {@link #close()}.
+ */
+public final class SpreadsheetReader implements Iterator<Object[]>, Closeable {
+    private final Cells cells;
+    private final boolean integers;
+
+    private int width = -1;
+    /** Cell read last belongs to the next row and is not taken yet. */
+    private boolean held;
+    private boolean end;
+    private Object[] next;
+    private boolean done;
+
+    private SpreadsheetReader(Cells cells, boolean integers) {
+        this.cells = cells;
+        this.integers = integers;
+    }
+
+    /**
+     * Rows of the sheet with whole numbers as {@link Long}, as {@link XLSReader#parseAmount(String)} gives them.
+     * @throws IllegalArgumentException when the workbook has no such sheet
+     * @throws IllegalStateException when the workbook could not be read
+     */
+    public static SpreadsheetReader amounts(String filePath, String nameSheet) {
+        return new SpreadsheetReader(open(filePath, nameSheet), false);
+    }
+
+    /**
+     * Rows of the sheet with whole numbers as {@link Integer}, as {@link XLSReader#parseCurrency(String)} gives them.
+     * @throws IllegalArgumentException when the workbook has no such sheet
+     * @throws IllegalStateException when the workbook could not be read
+     */
+    public static SpreadsheetReader currencies(String filePath, String nameSheet) {
+        return new SpreadsheetReader(open(filePath, nameSheet), true);
+    }
+
+    /**
+     * Names of sheets of the workbook in their order. Only the workbook globals of .xls are read,
+     * for .xlsx sheet parts are not read at all.
+     * @throws IllegalStateException when the workbook could not be read
+     */
+    public static List<String> sheetNames(String filePath) {
+        try {
+            if (filePath.toLowerCase().endsWith(".xlsx")) return XlsxCells.sheetNames(filePath);
+            return XlsCells.sheetNames(filePath);
+        } catch (IOException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        } catch (OpenXML4JException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        }
+    }
+
+    public boolean hasNext() {
+        if (next == null && !done) {
+            next = readRow();
+            if (next == null) close();
+        }
+        return next != null;
+    }
+
+    public Object[] next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Object[] row = next;
+        next = null;
+        return row;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void close() {
+        if (done) return;
+        done = true;
+        next = null;
+        try {
+            cells.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Workbook could not be closed", e);
+        }
+    }
+
+    private Object[] readRow() {
+        if (end || !held && !cells.next()) return null;
+
+        int rowNumber = cells.row;
+        Object[] row = new Object[Math.max(width, 0)];
+        do {
+            if (cells.column >= row.length) {
+                if (width >= 0) continue;
+                row = Arrays.copyOf(row, cells.column + 1);
+            }
+            row[cells.column] = value(cells.value);
+        } while ((held = cells.next()) && cells.row == rowNumber);
+
+        end = !held;
+        if (width < 0) width = row.length;
+        return row;
+    }
+
+    private Object value(Object value) {
+        if (!(value instanceof Double)) return value;
+
+        double number = (Double) value;
+        if (number != Math.rint(number) || Math.abs(number) > Long.MAX_VALUE) return value;
+        return integers ? (Object) (int) number : (Object) (long) number;
+    }
+
+    private static Cells open(String filePath, String nameSheet) {
+        try {
+            if (filePath.toLowerCase().endsWith(".xlsx")) return new XlsxCells(filePath, nameSheet);
+            return new XlsCells(filePath, nameSheet);
+        } catch (IOException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        } catch (OpenXML4JException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        } catch (SAXException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        }
+    }
+
+
+    /** Cells of one sheet in order of rows, the current one is in row, column and value. */
+    private abstract static class Cells implements Closeable {
+        int row;
+        int column;
+        Object value;
+
+        /** Read the next cell. @return false at the end of the sheet */
+        abstract boolean next();
+    }
+
+
+    /** Cells of .xls sheet from records of the workbook stream. */
+    private static final class XlsCells extends Cells {
+        private final NPOIFSFileSystem fileSystem;
+        private final RecordFactoryInputStream records;
+        private SSTRecord strings;
+
+        /** Cells of MULRK and MULBLANK record not taken yet. */
+        private final Queue<Object[]> pending = new ArrayDeque<Object[]>();
+        /** Cell waiting for the STRING record with its cached formula result. */
+        private int formulaRow = -1, formulaColumn;
+        /** Depth of substreams embedded in the sheet, e.g. charts. */
+        private int nested;
+
+        XlsCells(String filePath, String nameSheet) throws IOException {
+            fileSystem = new NPOIFSFileSystem(new File(filePath), true);
+            try {
+                records = records(fileSystem);
+                seek(filePath, nameSheet);
+            } catch (IOException e) {
+                fileSystem.close();
+                throw e;
+            } catch (RuntimeException e) {
+                fileSystem.close();
+                throw e;
+            }
+        }
+
+        static List<String> sheetNames(String filePath) throws IOException {
+            NPOIFSFileSystem fileSystem = new NPOIFSFileSystem(new File(filePath), true);
+            try {
+                RecordFactoryInputStream records = records(fileSystem);
+                List<String> names = new ArrayList<String>();
+                for (Record record = records.nextRecord(); record != null; record = records.nextRecord()) {
+                    if (record instanceof BoundSheetRecord) names.add(((BoundSheetRecord) record).getSheetname());
+                    else if (record instanceof EOFRecord) break;
+                }
+                return names;
+            } finally {
+                fileSystem.close();
+            }
+        }
+
+        private static RecordFactoryInputStream records(NPOIFSFileSystem fileSystem) throws IOException {
+            DirectoryNode root = fileSystem.getRoot();
+            InputStream stream = root.createDocumentInputStream(root.hasEntry("Workbook") ? "Workbook" : "Book");
+            return new RecordFactoryInputStream(stream, false);
+        }
+
+        /**
+         * Skip workbook globals and sheets before the one asked for. Sheets are counted only at the top level,
+         * charts embedded in sheets have their own BOF and EOF inside them.
+         */
+        private void seek(String filePath, String nameSheet) {
+            List<String> names = new ArrayList<String>();
+            int sheet = -1, depth = 0;
+            for (Record record = records.nextRecord(); record != null; record = records.nextRecord()) {
+                if (record instanceof BoundSheetRecord) names.add(((BoundSheetRecord) record).getSheetname());
+                else if (record instanceof SSTRecord) strings = (SSTRecord) record;
+                else if (record instanceof EOFRecord) depth--;
+                else if (record instanceof BOFRecord && depth++ == 0
+                        && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    if (!names.contains(nameSheet)) break;
+                    if (names.get(++sheet).equals(nameSheet)) return;
+                }
+            }
+            throw new IllegalArgumentException("No sheet " + nameSheet + " in " + filePath);
+        }
+
+        boolean next() {
+            if (!pending.isEmpty()) {
+                take(pending.remove());
+                return true;
+            }
+            for (Record record = records.nextRecord(); record != null; record = records.nextRecord()) {
+                if (record instanceof BOFRecord) nested++;
+                else if (record instanceof EOFRecord && nested-- == 0) return false;
+                else if (nested == 0 && read(record)) return true;
+            }
+            return false;
+        }
+
+        /** @return true when the record gave the current cell */
+        private boolean read(Record record) {
+            if (record instanceof MulRKRecord) {
+                MulRKRecord mulRK = (MulRKRecord) record;
+                for (int i = 0; i < mulRK.getNumColumns(); i++)
+                    pending.add(new Object[] { mulRK.getRow(), mulRK.getFirstColumn() + i, mulRK.getRKNumberAt(i) });
+                take(pending.remove());
+                return true;
+            }
+            if (record instanceof MulBlankRecord) {
+                MulBlankRecord mulBlank = (MulBlankRecord) record;
+                for (int i = 0; i < mulBlank.getNumColumns(); i++)
+                    pending.add(new Object[] { mulBlank.getRow(), mulBlank.getFirstColumn() + i, null });
+                take(pending.remove());
+                return true;
+            }
+            if (record instanceof StringRecord) {
+                if (formulaRow < 0) return false;
+                take(new Object[] { formulaRow, formulaColumn, ((StringRecord) record).getString() });
+                formulaRow = -1;
+                return true;
+            }
+            if (!(record instanceof CellValueRecordInterface)) return false;
+
+            CellValueRecordInterface cell = (CellValueRecordInterface) record;
+            Object value = null;
+            if (record instanceof NumberRecord) value = ((NumberRecord) record).getValue();
+            else if (record instanceof RKRecord) value = ((RKRecord) record).getRKNumber();
+            else if (record instanceof LabelSSTRecord) value = strings.getString(((LabelSSTRecord) record).getSSTIndex()).getString();
+            else if (record instanceof LabelRecord) value = ((LabelRecord) record).getValue();
+            else if (record instanceof BoolErrRecord) {
+                BoolErrRecord boolErr = (BoolErrRecord) record;
+                if (boolErr.isBoolean()) value = boolErr.getBooleanValue();
+            } else if (record instanceof FormulaRecord) {
+                FormulaRecord formula = (FormulaRecord) record;
+                if (formula.hasCachedResultString()) {
+                    formulaRow = cell.getRow();
+                    formulaColumn = cell.getColumn();
+                    return false;
+                }
+                if (formula.getCachedResultType() == Cell.CELL_TYPE_NUMERIC) value = formula.getValue();
+                else if (formula.getCachedResultType() == Cell.CELL_TYPE_BOOLEAN) value = formula.getCachedBooleanValue();
+            } else if (!(record instanceof BlankRecord)) return false;
+
+            take(new Object[] { cell.getRow(), (int) cell.getColumn(), value });
+            return true;
+        }
+
+        private void take(Object[] cell) {
+            row = (Integer) cell[0];
+            column = (Integer) cell[1];
+            value = cell[2];
+        }
+
+        public void close() throws IOException {
+            fileSystem.close();
+        }
+    }
+
+
+    /** Cells of .xlsx sheet from its XML part. */
+    private static final class XlsxCells extends Cells {
+        private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+        private final OPCPackage pack;
+        private final ReadOnlySharedStringsTable strings;
+        private final InputStream sheet;
+        private final XMLStreamReader xml;
+
+        private int rowNumber = -1, columnNumber;
+
+        XlsxCells(String filePath, String nameSheet)
+                throws IOException, OpenXML4JException, SAXException, XMLStreamException {
+            pack = OPCPackage.open(filePath, PackageAccess.READ);
+            try {
+                XSSFReader reader = new XSSFReader(pack);
+                strings = new ReadOnlySharedStringsTable(pack);
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                InputStream found = null;
+                while (found == null && sheets.hasNext()) {
+                    InputStream stream = sheets.next();
+                    if (sheets.getSheetName().equals(nameSheet)) found = stream;
+                    else stream.close();
+                }
+                if (found == null) throw new IllegalArgumentException("No sheet " + nameSheet + " in " + filePath);
+                sheet = found;
+                xml = FACTORY.createXMLStreamReader(sheet);
+            } catch (IOException e) {
+                pack.revert();
+                throw e;
+            } catch (RuntimeException e) {
+                pack.revert();
+                throw e;
+            }
+        }
+
+        static List<String> sheetNames(String filePath) throws IOException, OpenXML4JException {
+            OPCPackage pack = OPCPackage.open(filePath, PackageAccess.READ);
+            try {
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pack).getSheetsData();
+                List<String> names = new ArrayList<String>();
+                while (sheets.hasNext()) {
+                    sheets.next().close();
+                    names.add(sheets.getSheetName());
+                }
+                return names;
+            } finally {
+                pack.revert();
+            }
+        }
+
+        boolean next() {
+            try {
+                return read();
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Sheet could not be read", e);
+            }
+        }
+
+        /** @return false at the end of sheet data */
+        private boolean read() throws XMLStreamException {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) return false;
+                if (event != XMLStreamConstants.START_ELEMENT) continue;
+
+                String name = xml.getLocalName();
+                if ("row".equals(name)) {
+                    String r = xml.getAttributeValue(null, "r");
+                    rowNumber = r == null ? rowNumber + 1 : Integer.parseInt(r) - 1;
+                    columnNumber = -1;
+                } else if ("c".equals(name)) {
+                    String r = xml.getAttributeValue(null, "r");
+                    columnNumber = r == null ? columnNumber + 1 : column(r);
+                    row = rowNumber;
+                    column = columnNumber;
+                    value = cell(xml.getAttributeValue(null, "t"));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Value of the cell, reader is moved to the end of its element. */
+        private Object cell(String type) throws XMLStreamException {
+            String text = null;
+            int depth = 1;
+            while (depth > 0) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = xml.getLocalName();
+                    if ("v".equals(name) || "t".equals(name)) {
+                        text = text == null ? xml.getElementText() : text + xml.getElementText();
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+            }
+            if (text == null) return null;
+
+            if (type == null || "n".equals(type)) return Double.valueOf(text);
+            if ("s".equals(type)) return strings.getEntryAt(Integer.parseInt(text));
+            if ("b".equals(type)) return "1".equals(text);
+            if ("e".equals(type)) return null;
+            return text;
+        }
+
+        private static int column(String reference) {
+            int column = 0;
+            for (int i = 0; i < reference.length(); i++) {
+                char c = reference.charAt(i);
+                if (c < 'A' || c > 'Z') break;
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        public void close() throws IOException {
+            try {
+                xml.close();
+                sheet.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            } finally {
+                pack.revert();
+            }
+        }
+    }
+}
@@ -1,42 +1,84 @@
 package ua.app.utilities;
 
 import org.apache.log4j.Logger;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
-import org.testng.Reporter;
-import ua.app.base.TestBase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ * Collects duration, thread and outcome of every test method invocation (every data row of data driven tests)
+ * and writes timing reports: <code>&lt;test&gt;.json</code> and <code>&lt;test&gt;.csv</code> when a test of the suite
+ * finishes and <code>suite.json</code> / <code>suite.csv</code> when the suite finishes. Reports are written to
+ * <code>target/test-timings</code> or to the directory given by <code>test.timings.dir</code> system property.
+ *
+ * Results are put into lock-free queues by test threads, log lines are built and written by a daemon thread,
+ * so neither collecting nor logging slows down tests being measured. Lines the daemon has not written yet
+ * are written when the suite finishes.
+ *
  * Created by Dmytro_Rybin on 11/1/2016.
  */
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener {
 
     static Logger logger = Logger.getLogger(TestListener.class);
 
+    private static final String STARTED = "ua.app.startedNanos";
+    private static final int SLOWEST_ROWS = 10;
+
+    /** All invocations of the run, listener may be instantiated per test class, so state is shared. */
+    private static final ConcurrentLinkedQueue<Invocation> INVOCATIONS = new ConcurrentLinkedQueue<Invocation>();
+    /** Invocations which are not logged yet. */
+    private static final ConcurrentLinkedQueue<Invocation> UNLOGGED = new ConcurrentLinkedQueue<Invocation>();
+    /** Names of tests and suites which already have their reports, several listener instances get the same events. */
+    private static final Map<String, Boolean> REPORTED = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>());
+
+    private static final Thread LOG_WRITER = new Thread(TestListener::writeLog, "test-log-writer");
+    static {
+        LOG_WRITER.setDaemon(true);
+        LOG_WRITER.start();
+    }
+
     @Override
     public void onTestStart(ITestResult iTestResult) {
-
+        iTestResult.setAttribute(STARTED, System.nanoTime());
     }
 
     @Override
     public void onTestSuccess(ITestResult iTestResult) {
-        logger.info("Test [" + iTestResult.getMethod().getMethodName() + "] has passed within [" + (iTestResult.getEndMillis() - iTestResult.getStartMillis()) + "]." + "Thread ID: " + Thread.currentThread().getId());
+        collect(iTestResult, Outcome.PASSED);
     }
 
     @Override
     public void onTestFailure(ITestResult iTestResult) {
-        logger.error("Test [" + iTestResult.getMethod().getMethodName() + "] has failed within [" + (iTestResult.getEndMillis() - iTestResult.getStartMillis()) + "]." + "Thread ID: " + Thread.currentThread().getId());
+        collect(iTestResult, Outcome.FAILED);
     }
 
     @Override
     public void onTestSkipped(ITestResult iTestResult) {
-        logger.info("Test [" + iTestResult.getMethod().getMethodName() + "] has been skipped within [" + (iTestResult.getEndMillis() - iTestResult.getStartMillis()) + "]." + "Thread ID: " + Thread.currentThread().getId());
+        collect(iTestResult, Outcome.SKIPPED);
     }
 
     @Override
     public void onTestFailedButWithinSuccessPercentage(ITestResult iTestResult) {
-
+        collect(iTestResult, Outcome.PASSED);
     }
 
     @Override
@@ -46,7 +88,264 @@ public class TestListener implements ITestListener {
 
     @Override
     public void onFinish(ITestContext iTestContext) {
+        String test = iTestContext.getName();
+        if (REPORTED.put("test:" + test, Boolean.TRUE) == null) {
+            List<Invocation> invocations = new ArrayList<Invocation>();
+            for (Invocation invocation : INVOCATIONS)
+                if (invocation.test.equals(test)) invocations.add(invocation);
+            report(fileName(test), invocations);
+        }
+        System.out.println("[STOP]: " + test);
+    }
+
+    @Override
+    public void onStart(ISuite iSuite) {
+    }
+
+    @Override
+    public void onFinish(ISuite iSuite) {
+        String suite = iSuite.getName();
+        if (REPORTED.put("suite:" + suite, Boolean.TRUE) == null) {
+            List<Invocation> invocations = new ArrayList<Invocation>();
+            for (Invocation invocation : INVOCATIONS)
+                if (invocation.suite.equals(suite)) invocations.add(invocation);
+            report("suite", invocations);
+        }
+        // the daemon dies with the JVM, so lines it has not got to are written here
+        for (Invocation invocation = UNLOGGED.poll(); invocation != null; invocation = UNLOGGED.poll())
+            log(invocation);
+    }
+
+
+    private static void collect(ITestResult result, Outcome outcome) {
+        long ended = System.nanoTime();
+        Object started = result.getAttribute(STARTED);
+        // skipped tests may never be started, their duration is zero then
+        long nanos = started instanceof Long ? ended - (Long) started : 0;
+
+        ITestContext context = result.getTestContext();
+        Invocation invocation = new Invocation(context.getSuite().getName(), context.getName(),
+                result.getMethod().getRealClass().getSimpleName(), result.getMethod().getMethodName(),
+                result.getParameters(), outcome, Thread.currentThread().getId(),
+                started instanceof Long ? (Long) started : ended, nanos);
+        INVOCATIONS.add(invocation);
+        UNLOGGED.add(invocation);
+        LockSupport.unpark(LOG_WRITER);
+    }
+
+    /** Loop of the daemon thread which turns collected invocations into log lines. */
+    private static void writeLog() {
+        while (true) {
+            Invocation invocation = UNLOGGED.poll();
+            if (invocation == null) LockSupport.park();
+            else log(invocation);
+        }
+    }
+
+    private static void log(Invocation invocation) {
+        String line = "Test [" + invocation.method + "] " + invocation.outcome.logged + " within ["
+                + invocation.nanos / 1000000 + "]." + "Thread ID: " + invocation.thread;
+        if (invocation.outcome == Outcome.FAILED) logger.error(line);
+        else logger.info(line);
+    }
+
+
+    private static void report(String name, List<Invocation> invocations) {
+        if (invocations.isEmpty()) return;
+        File dir = new File(System.getProperty("test.timings.dir", "target/test-timings"));
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+
+        Map<String, List<Invocation>> byMethod = new TreeMap<String, List<Invocation>>();
+        for (Invocation invocation : invocations) {
+            String key = invocation.className + "." + invocation.method;
+            if (!byMethod.containsKey(key)) byMethod.put(key, new ArrayList<Invocation>());
+            byMethod.get(key).add(invocation);
+        }
+
+        List<Invocation> slowest = new ArrayList<Invocation>(invocations);
+        slowest.sort(Comparator.comparingLong((Invocation invocation) -> invocation.nanos).reversed());
+        slowest = slowest.subList(0, Math.min(SLOWEST_ROWS, slowest.size()));
+
+        try {
+            write(new File(dir, name + ".json"), json(name, byMethod, slowest, utilization(invocations)));
+            write(new File(dir, name + ".csv"), csv(byMethod));
+        } catch (IOException e) {
+            logger.error("Timing report " + name + " could not be written: " + e.getMessage());
+        }
+    }
+
+    private static String json(String name, Map<String, List<Invocation>> byMethod, List<Invocation> slowest,
+                               Utilization utilization) {
+        StringBuilder out = new StringBuilder();
+        out.append("{\n  \"name\": ").append(quote(name)).append(",\n");
+        out.append("  \"wallMillis\": ").append(millis(utilization.wallNanos))
+                .append(",\n  \"busyMillis\": ").append(millis(utilization.busyNanos))
+                .append(",\n  \"threads\": ").append(utilization.busyByThread.size())
+                .append(",\n  \"threadUtilization\": ").append(String.format("%.3f", utilization.ratio()))
+                .append(",\n  \"busyMillisByThread\": {");
+        String separator = "";
+        for (Map.Entry<Long, Long> thread : utilization.busyByThread.entrySet()) {
+            out.append(separator).append("\"").append(thread.getKey()).append("\": ").append(millis(thread.getValue()));
+            separator = ", ";
+        }
+        out.append("},\n  \"tests\": [\n");
+
+        separator = "";
+        for (Map.Entry<String, List<Invocation>> method : byMethod.entrySet()) {
+            Stats stats = new Stats(method.getValue());
+            out.append(separator).append("    {\"test\": ").append(quote(method.getKey()))
+                    .append(", \"invocations\": ").append(stats.count)
+                    .append(", \"passed\": ").append(stats.passed)
+                    .append(", \"failed\": ").append(stats.failed)
+                    .append(", \"skipped\": ").append(stats.skipped)
+                    .append(", \"p50Millis\": ").append(millis(stats.percentile(0.5)))
+                    .append(", \"p95Millis\": ").append(millis(stats.percentile(0.95)))
+                    .append(", \"maxMillis\": ").append(millis(stats.max()))
+                    .append(", \"totalMillis\": ").append(millis(stats.total)).append("}");
+            separator = ",\n";
+        }
+        out.append("\n  ],\n  \"slowestRows\": [\n");
+
+        separator = "";
+        for (Invocation invocation : slowest) {
+            out.append(separator).append("    {\"test\": ").append(quote(invocation.className + "." + invocation.method))
+                    .append(", \"parameters\": ").append(quote(invocation.parameters))
+                    .append(", \"outcome\": \"").append(invocation.outcome).append("\"")
+                    .append(", \"thread\": ").append(invocation.thread)
+                    .append(", \"millis\": ").append(millis(invocation.nanos)).append("}");
+            separator = ",\n";
+        }
+        out.append("\n  ]\n}\n");
+        return out.toString();
+    }
+
+    private static String csv(Map<String, List<Invocation>> byMethod) {
+        StringBuilder out = new StringBuilder("test,invocations,passed,failed,skipped,p50_ms,p95_ms,max_ms,total_ms\n");
+        for (Map.Entry<String, List<Invocation>> method : byMethod.entrySet()) {
+            Stats stats = new Stats(method.getValue());
+            out.append(csvField(method.getKey())).append(',').append(stats.count).append(',').append(stats.passed).append(',')
+                    .append(stats.failed).append(',').append(stats.skipped).append(',')
+                    .append(millis(stats.percentile(0.5))).append(',').append(millis(stats.percentile(0.95))).append(',')
+                    .append(millis(stats.max())).append(',').append(millis(stats.total)).append('\n');
+        }
+        return out.toString();
+    }
+
+    /** Field quoted as RFC 4180 requires when it has separators, quotes or line breaks. */
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /** Busy time of every thread against the wall time from the first start to the last end. */
+    private static Utilization utilization(List<Invocation> invocations) {
+        Utilization utilization = new Utilization();
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+        for (Invocation invocation : invocations) {
+            first = Math.min(first, invocation.started);
+            last = Math.max(last, invocation.started + invocation.nanos);
+            utilization.busyNanos += invocation.nanos;
+            Long busy = utilization.busyByThread.get(invocation.thread);
+            utilization.busyByThread.put(invocation.thread, (busy == null ? 0 : busy) + invocation.nanos);
+        }
+        utilization.wallNanos = last - first;
+        return utilization;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (Writer out = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            out.write(content);
+        }
+    }
+
+    private static String fileName(String test) {
+        return test.replaceAll("[^A-Za-z0-9_.-]+", "_");
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    private static String quote(String value) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') out.append('\\').append(ch);
+            else if (ch < 0x20) out.append(String.format("\\u%04x", (int) ch));
+            else out.append(ch);
+        }
+        return out.append('"').toString();
+    }
+
+
+    private enum Outcome {
+        PASSED("has passed"), FAILED("has failed"), SKIPPED("has been skipped");
+
+        final String logged;
+
+        Outcome(String logged) {
+            this.logged = logged;
+        }
+    }
+
+    /** One invocation of test method, that is one data row for data driven tests. */
+    private static final class Invocation {
+        final String suite, test, className, method, parameters;
+        final Outcome outcome;
+        final long thread, started, nanos;
+
+        Invocation(String suite, String test, String className, String method, Object[] parameters, Outcome outcome,
+                   long thread, long started, long nanos) {
+            this.suite = suite;
+            this.test = test;
+            this.className = className;
+            this.method = method;
+            this.parameters = parameters == null || parameters.length == 0 ? "" : Arrays.deepToString(parameters);
+            this.outcome = outcome;
+            this.thread = thread;
+            this.started = started;
+            this.nanos = nanos;
+        }
+    }
+
+    /** Duration statistics of invocations of one method. */
+    private static final class Stats {
+        final long[] sorted;
+        final int count;
+        int passed, failed, skipped;
+        long total;
+
+        Stats(List<Invocation> invocations) {
+            count = invocations.size();
+            sorted = new long[count];
+            for (int i = 0; i < count; i++) {
+                Invocation invocation = invocations.get(i);
+                sorted[i] = invocation.nanos;
+                total += invocation.nanos;
+                if (invocation.outcome == Outcome.PASSED) passed++;
+                else if (invocation.outcome == Outcome.FAILED) failed++;
+                else skipped++;
+            }
+            Arrays.sort(sorted);
+        }
+
+        long percentile(double percentile) {
+            return sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+        }
+
+        long max() {
+            return sorted[count - 1];
+        }
+    }
+
+    private static final class Utilization {
+        final Map<Long, Long> busyByThread = new TreeMap<Long, Long>();
+        long busyNanos, wallNanos;
 
-        System.out.println("[STOP]: " + iTestContext.getName());
+        /** Share of the wall time threads spent in tests, 1 means every thread was busy all the time. */
+        double ratio() {
+            return wallNanos <= 0 || busyByThread.isEmpty() ? 0 : (double) busyNanos / wallNanos / busyByThread.size();
+        }
     }
 }
@@ -0,0 +1,141 @@
+package ua.app.utilities;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Workbooks of test data parsed once for the whole suite, shared by data providers of all tests.
+ *
+ * The first provider asking for a workbook reads it and converts every sheet to typed rows, sheets are
+ * converted in parallel. Providers asking meanwhile wait for the same parsing instead of starting their own.
+ * Cells are kept as {@link Long} for numbers and {@link String} for text, as {@link XLSReader} returns them,
+ * other cells are null. Cached rows are never handed out, every call returns its own copy of them.
+ */
+public final class WorkbookCache {
+    private static final ConcurrentMap<String, CompletableFuture<Map<String, Object[][]>>> WORKBOOKS =
+            new ConcurrentHashMap<String, CompletableFuture<Map<String, Object[][]>>>();
+
+    private WorkbookCache() {}
+
+    /**
+     * Rows of the sheet with numbers as {@link Long}, the same as {@link XLSReader#parseAmount(String)}.
+     * @throws IllegalArgumentException when the workbook has no such sheet
+     * @throws IllegalStateException when the workbook could not be read
+     */
+    public static Object[][] amounts(String filePath, String nameSheet) {
+        Object[][] rows = sheet(filePath, nameSheet);
+        Object[][] result = new Object[rows.length][];
+        for (int i = 0; i < rows.length; i++) result[i] = rows[i].clone();
+        return result;
+    }
+
+    /**
+     * Rows of the sheet with numbers as {@link Integer}, the same as {@link XLSReader#parseCurrency(String)}.
+     * @throws IllegalArgumentException when the workbook has no such sheet
+     * @throws IllegalStateException when the workbook could not be read
+     */
+    public static Object[][] currencies(String filePath, String nameSheet) {
+        Object[][] rows = sheet(filePath, nameSheet);
+        Object[][] result = new Object[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            result[i] = new Object[rows[i].length];
+            for (int j = 0; j < rows[i].length; j++) {
+                Object value = rows[i][j];
+                // through double as XLSReader casts cells, numbers too big for int are clamped, not wrapped
+                result[i][j] = value instanceof Long ? (Object) (int) (double) (Long) value : value;
+            }
+        }
+        return result;
+    }
+
+    private static Object[][] sheet(String filePath, String nameSheet) {
+        Object[][] rows = workbook(filePath).get(nameSheet);
+        if (rows == null) throw new IllegalArgumentException("No sheet " + nameSheet + " in " + filePath);
+        return rows;
+    }
+
+    private static Map<String, Object[][]> workbook(String filePath) {
+        String key = Paths.get(filePath).toAbsolutePath().normalize().toString();
+        CompletableFuture<Map<String, Object[][]>> workbook = WORKBOOKS.get(key);
+        if (workbook == null) {
+            CompletableFuture<Map<String, Object[][]>> parsing = new CompletableFuture<Map<String, Object[][]>>();
+            workbook = WORKBOOKS.putIfAbsent(key, parsing);
+            if (workbook == null) {
+                workbook = parsing;
+                try {
+                    parsing.complete(parse(key));
+                } catch (RuntimeException e) {
+                    parsing.completeExceptionally(e);
+                }
+            }
+        }
+
+        try {
+            return workbook.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private static Map<String, Object[][]> parse(String filePath) {
+        final HSSFWorkbook workBook;
+        try (InputStream input = new FileInputStream(filePath)) {
+            workBook = new HSSFWorkbook(input);
+        } catch (IOException e) {
+            throw new IllegalStateException("Workbook " + filePath + " could not be read", e);
+        }
+
+        List<CompletableFuture<Object[][]>> converting = new ArrayList<CompletableFuture<Object[][]>>();
+        for (int i = 0; i < workBook.getNumberOfSheets(); i++) {
+            final Sheet sheet = workBook.getSheetAt(i);
+            converting.add(CompletableFuture.supplyAsync(() -> rows(sheet)));
+        }
+
+        Map<String, Object[][]> sheets = new HashMap<String, Object[][]>();
+        for (int i = 0; i < converting.size(); i++) {
+            sheets.put(workBook.getSheetName(i), converting.get(i).join());
+        }
+        return Collections.unmodifiableMap(sheets);
+    }
+
+    private static Object[][] rows(Sheet sheet) {
+        int rows = sheet.getPhysicalNumberOfRows();
+        int column = rows == 0 ? 0 : sheet.getRow(0).getPhysicalNumberOfCells();
+        Object[][] result = new Object[rows][column];
+
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) continue;
+            for (int j = 0; j < column; j++) {
+                Cell cell = row.getCell(j);
+                if (cell == null) continue;
+
+                switch (cell.getCellType()) {
+                    case Cell.CELL_TYPE_NUMERIC:
+                        result[i][j] = (long) cell.getNumericCellValue();
+                        break;
+                    case Cell.CELL_TYPE_STRING:
+                        result[i][j] = cell.getStringCellValue();
+                        break;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -13,12 +13,10 @@ import java.io.InputStream;
  * Created by Dmytro_Rybin on 11/1/2016.
  */
 public class XLSReader {
-    private InputStream input;
     private HSSFWorkbook workBook;
 
     public XLSReader(String filePath) {
-        try {
-            input = new FileInputStream(filePath);
+        try (InputStream input = new FileInputStream(filePath)) {
             workBook = new HSSFWorkbook(input);
         } catch (IOException e) {
             e.printStackTrace();